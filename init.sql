@@ -18,11 +18,28 @@ CREATE TABLE ship
     speed    DOUBLE      NULL,
     crewSize INT(4)      NULL,
     rating   DOUBLE      NULL,
+    version  BIGINT(20)  NOT NULL DEFAULT 0,
     PRIMARY KEY (id)
 )
     ENGINE = InnoDB
     DEFAULT CHARACTER SET = utf8;
 
+CREATE INDEX idx_ship_speed_id ON ship (speed, id);
+CREATE INDEX idx_ship_prodDate_id ON ship (prodDate, id);
+CREATE INDEX idx_ship_rating_id ON ship (rating, id);
+CREATE INDEX idx_ship_shipType_isUsed_prodDate ON ship (shipType, isUsed, prodDate);
+CREATE INDEX idx_ship_isUsed_prodDate ON ship (isUsed, prodDate);
+CREATE INDEX idx_ship_crewSize ON ship (crewSize);
+
+DROP TABLE IF EXISTS job_checkpoint;
+
+CREATE TABLE job_checkpoint
+(
+    name   VARCHAR(50) NOT NULL,
+    lastId BIGINT(20)  NOT NULL,
+    PRIMARY KEY (name)
+);
+
 insert into ship(name, planet, shipType, prodDate, isUsed, speed, crewSize, rating)
 values ('Orion III', 'Mars', 'MERCHANT', '2995-01-01', true, 0.82, 617, 1.31)
      , ('Daedalus', 'Jupiter', 'MERCHANT', '3001-01-01', true, 0.94, 1619, 1.98)
@@ -0,0 +1,8 @@
+USE cosmoport;
+
+CREATE INDEX idx_ship_speed_id ON ship (speed, id);
+CREATE INDEX idx_ship_prodDate_id ON ship (prodDate, id);
+CREATE INDEX idx_ship_rating_id ON ship (rating, id);
+CREATE INDEX idx_ship_shipType_isUsed_prodDate ON ship (shipType, isUsed, prodDate);
+CREATE INDEX idx_ship_isUsed_prodDate ON ship (isUsed, prodDate);
+CREATE INDEX idx_ship_crewSize ON ship (crewSize);
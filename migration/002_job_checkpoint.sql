@@ -0,0 +1,8 @@
+USE cosmoport;
+
+CREATE TABLE IF NOT EXISTS job_checkpoint
+(
+    name   VARCHAR(50) NOT NULL,
+    lastId BIGINT(20)  NOT NULL,
+    PRIMARY KEY (name)
+);
@@ -0,0 +1,3 @@
+USE cosmoport;
+
+ALTER TABLE ship ADD COLUMN version BIGINT(20) NOT NULL DEFAULT 0;
@@ -0,0 +1,58 @@
+package com.space.benchmark;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+
+public final class Fleets {
+
+    private static final String[] PLANETS = {"Mercury", "Venus", "Earth", "Mars", "Jupiter", "Saturn", "Uranus", "Neptune"};
+    private static final ShipType[] TYPES = ShipType.values();
+    private static final int INSERT_BATCH = 10_000;
+
+    private Fleets() {
+    }
+
+    public static List<Ship> generate(int size, long seed) {
+        Random random = new Random(seed);
+        List<Ship> fleet = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int year = 2800 + random.nextInt(220);
+            double speed = (1 + random.nextInt(99)) / 100.0;
+            boolean used = random.nextBoolean();
+            Ship ship = new Ship("Ship " + Integer.toString(i, 36), PLANETS[random.nextInt(PLANETS.length)],
+                    TYPES[random.nextInt(TYPES.length)].name(), dateOf(year), used, speed,
+                    1 + random.nextInt(9999), rating(speed, used, year));
+            ship.setId(i + 1L);
+            fleet.add(ship);
+        }
+        return fleet;
+    }
+
+    public static void insert(JdbcTemplate jdbcTemplate, int size, long seed) {
+        jdbcTemplate.execute("DELETE FROM ship");
+        for (int from = 0; from < size; from += INSERT_BATCH) {
+            List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+            for (Ship ship : generate(Math.min(INSERT_BATCH, size - from), seed + from)) {
+                rows.add(new Object[]{ship.getName(), ship.getPlanet(), ship.getShipType(), ship.getProdDate(),
+                        ship.getUsed(), ship.getSpeed(), ship.getCrewSize(), ship.getRating()});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO ship(name, planet, shipType, prodDate, isUsed, speed, crewSize, rating) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        }
+    }
+
+    private static Date dateOf(int year) {
+        return new Date(new Calendar.Builder().setDate(year, Calendar.JANUARY, 1).build().getTimeInMillis());
+    }
+
+    private static double rating(double speed, boolean used, int year) {
+        return Math.round(80 * speed * (used ? 0.5 : 1) / (3019 - year + 1) * 100) / 100.0;
+    }
+}
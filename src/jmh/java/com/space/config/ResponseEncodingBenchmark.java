@@ -0,0 +1,156 @@
+package com.space.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.space.benchmark.Fleets;
+import com.space.model.Ship;
+import com.space.service.ShipJsonCache;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Процессорное время и размер ответа (bytesOnWire) для страницы кораблей: Jackson против склейки
+// кэшированных байтов, без сжатия и с gzip
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ResponseEncodingBenchmark {
+
+    private static final Type SHIP_LIST = ResolvableType.forClassWithGenerics(List.class, Ship.class).getType();
+
+    @Param({"20", "1000", "100000"})
+    private int pageSize;
+
+    private List<Ship> page;
+    private ObjectWriter jackson;
+    private ShipJsonHttpMessageConverter spliced;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Wire {
+        public long bytesOnWire;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        page = Fleets.generate(pageSize, 42);
+        for (Ship ship : page) ship.setVersion(0L);
+        ObjectMapper objectMapper = new WebConfig().objectMapper();
+        jackson = objectMapper.writerFor(List.class);
+        ShipJsonCache cache = new ShipJsonCache();
+        ReflectionTestUtils.setField(cache, "maxEntries", pageSize);
+        spliced = new ShipJsonHttpMessageConverter(objectMapper, cache, null);
+        spliced.write(page, SHIP_LIST, MediaType.APPLICATION_JSON, new Message(new CountingOutputStream()));
+    }
+
+    @Benchmark
+    public long jackson(Wire wire) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        jackson.writeValue(out, page);
+        return wire.bytesOnWire = out.count;
+    }
+
+    @Benchmark
+    public long splicedFromCache(Wire wire) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        spliced.write(page, SHIP_LIST, MediaType.APPLICATION_JSON, new Message(out));
+        return wire.bytesOnWire = out.count;
+    }
+
+    @Benchmark
+    public long jacksonGzip(Wire wire) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            jackson.writeValue(new NonClosing(gzip), page);
+        }
+        return wire.bytesOnWire = out.count;
+    }
+
+    @Benchmark
+    public long splicedFromCacheGzip(Wire wire) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            spliced.write(page, SHIP_LIST, MediaType.APPLICATION_JSON, new Message(new NonClosing(gzip)));
+        }
+        return wire.bytesOnWire = out.count;
+    }
+
+    private static class Message implements HttpOutputMessage {
+        private final OutputStream body;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        Message(OutputStream body) {
+            this.body = body;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    private static class NonClosing extends OutputStream {
+        private final OutputStream target;
+
+        NonClosing(OutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.space.config;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.space.benchmark.Fleets;
+import com.space.model.Ship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class SerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int fleetSize;
+
+    private List<Ship> fleet;
+    private byte[] fleetJson;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    // Прежний путь: рефлексия по полям без ShipJsonModule
+    private ObjectWriter reflectiveWriter;
+    private ObjectReader reflectiveReader;
+    private CountingOutputStream out = new CountingOutputStream();
+
+    @Setup
+    public void setup() throws IOException {
+        fleet = Fleets.generate(fleetSize, 42);
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        new WebConfig().configureMessageConverters(converters);
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter instanceof MappingJackson2HttpMessageConverter)
+                writer = ((MappingJackson2HttpMessageConverter) converter).getObjectMapper().writerFor(List.class);
+        }
+        ObjectMapper reflective = Jackson2ObjectMapperBuilder.json().build();
+        reflective.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        reflective.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        reflectiveWriter = reflective.writerFor(List.class);
+        reflectiveReader = reflective.readerFor(new TypeReference<List<Ship>>() {
+        });
+        reader = new WebConfig().objectMapper().readerFor(new TypeReference<List<Ship>>() {
+        });
+        fleetJson = writer.writeValueAsBytes(fleet);
+    }
+
+    @Benchmark
+    public long serializeShips() throws IOException {
+        out.count = 0;
+        writer.writeValue(out, fleet);
+        return out.count;
+    }
+
+    @Benchmark
+    public long serializeShipsReflective() throws IOException {
+        out.count = 0;
+        reflectiveWriter.writeValue(out, fleet);
+        return out.count;
+    }
+
+    @Benchmark
+    public List<Ship> deserializeShips() throws IOException {
+        return reader.readValue(fleetJson);
+    }
+
+    @Benchmark
+    public List<Ship> deserializeShipsReflective() throws IOException {
+        return reflectiveReader.readValue(fleetJson);
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.space.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Цена замера на горячем пути: запись в гистограмму (в том числе из нескольких потоков)
+// и вызов через TimingPostProcessor против прямого вызова
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TimingBenchmark {
+
+    private final Histogram histogram = new Histogram();
+    private LongSupplier direct;
+    private LongSupplier timed;
+
+    @Setup
+    public void setup() {
+        direct = () -> ThreadLocalRandom.current().nextLong(1_000_000);
+        Metrics metrics = new Metrics();
+        timed = (LongSupplier) new TimingPostProcessor(LongSupplier.class, metrics.service())
+                .postProcessAfterInitialization((LongSupplier) () -> ThreadLocalRandom.current().nextLong(1_000_000),
+                        "supplier");
+    }
+
+    @Benchmark
+    public void record() {
+        histogram.record(ThreadLocalRandom.current().nextLong(1_000_000));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordContended() {
+        histogram.record(ThreadLocalRandom.current().nextLong(1_000_000));
+    }
+
+    @Benchmark
+    public long directCall() {
+        return direct.getAsLong();
+    }
+
+    @Benchmark
+    public long timedCall() {
+        return timed.getAsLong();
+    }
+}
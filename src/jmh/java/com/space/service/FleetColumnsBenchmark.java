@@ -0,0 +1,63 @@
+package com.space.service;
+
+import com.space.benchmark.Fleets;
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class FleetColumnsBenchmark {
+
+    private static final ShipFilter RANGES = new ShipFilter(null, null, null, null, null, false,
+            0.3, 0.6, 1000, 5000, null, null);
+    // Имена вида "Ship <id в base36>": редкая подстрока находится по триграммам, короткая - полным проходом
+    private static final ShipFilter RARE_NAME = new ShipFilter("p 1zz", null, null, null, null, null,
+            null, null, null, null, null, null);
+    private static final ShipFilter SHORT_NAME = new ShipFilter("zz", null, null, null, null, null,
+            null, null, null, null, null, null);
+
+    @Param({"100000", "1000000"})
+    private int fleetSize;
+
+    private FleetColumns columns;
+
+    @Setup
+    public void setup() {
+        columns = new FleetColumns(fleetSize);
+        for (Ship ship : Fleets.generate(fleetSize, 42)) columns.append(ship);
+        columns.sortAll();
+    }
+
+    @Benchmark
+    public List<Ship> firstPageByRanges() {
+        return columns.page(columns.match(RANGES), ShipOrder.RATING, 0, 20);
+    }
+
+    @Benchmark
+    public long countRareNameByTrigrams() {
+        return FleetColumns.count(columns.match(RARE_NAME));
+    }
+
+    @Benchmark
+    public long countShortNameByScan() {
+        return FleetColumns.count(columns.match(SHORT_NAME));
+    }
+}
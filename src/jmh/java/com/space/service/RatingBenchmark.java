@@ -0,0 +1,55 @@
+package com.space.service;
+
+import com.space.benchmark.Fleets;
+import com.space.model.Ship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class RatingBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int fleetSize;
+
+    private List<Ship> fleet;
+
+    @Setup
+    public void setup() {
+        fleet = Fleets.generate(fleetSize, 42);
+    }
+
+    @Benchmark
+    public double calculateRating() {
+        double sum = 0;
+        for (Ship ship : fleet) {
+            ShipServiceImpl.calculateRating(ship);
+            sum += ship.getRating();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double exactRating() {
+        double sum = 0;
+        for (Ship ship : fleet)
+            sum += Ratings.exact(ship.getSpeed(), ship.getUsed(), ProdDates.yearOf(ship.getProdDate()));
+        return sum;
+    }
+}
@@ -0,0 +1,101 @@
+package com.space.service;
+
+import com.space.benchmark.Fleets;
+import com.space.config.WebConfig;
+import com.space.controller.ShipCursor;
+import com.space.controller.ShipOrder;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.model.Ship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ShipServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int fleetSize;
+
+    private AnnotationConfigWebApplicationContext context;
+    private ShipService shipService;
+    private MockMvc mockMvc;
+    private int deepPage;
+    private ShipCursor deepCursor;
+
+    @Setup
+    public void setup() {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(TestDataSourceConfig.class, WebConfig.class);
+        context.refresh();
+        Fleets.insert(new JdbcTemplate(context.getBean(DataSource.class)), fleetSize, 42);
+        shipService = context.getBean(ShipService.class);
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        deepPage = fleetSize / PAGE_SIZE / 2;
+        List<Ship> page = shipService.pagedShips(null, null, null, null, null, null, null, null, null, null,
+                null, null, deepPage, PAGE_SIZE, ShipOrder.RATING);
+        deepCursor = ShipCursor.after(page.get(0), ShipOrder.RATING);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long countFiltered() {
+        return shipService.countShips("a", null, null, null, null, null, 0.3, 0.6, null, null, null, null);
+    }
+
+    @Benchmark
+    public List<Ship> firstPageFilteredByRating() {
+        return shipService.pagedShips(null, null, null, null, null, false, 0.3, 0.6, null, null, null, null,
+                0, PAGE_SIZE, ShipOrder.RATING);
+    }
+
+    @Benchmark
+    public List<Ship> deepPageByOffset() {
+        return shipService.pagedShips(null, null, null, null, null, null, null, null, null, null, null, null,
+                deepPage, PAGE_SIZE, ShipOrder.RATING);
+    }
+
+    @Benchmark
+    public List<Ship> deepPageByCursor() {
+        return shipService.shipsAfter(null, null, null, null, null, null, null, null, null, null, null, null,
+                deepCursor, PAGE_SIZE, ShipOrder.RATING);
+    }
+
+    @Benchmark
+    public String getShipsEndpoint() throws Exception {
+        return mockMvc.perform(get("/rest/ships?isUsed=false&minSpeed=0.3&maxSpeed=0.6&order=RATING&pageSize=" + PAGE_SIZE))
+                .andReturn().getResponse().getContentAsString();
+    }
+}
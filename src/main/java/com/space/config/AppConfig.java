@@ -1,11 +1,18 @@
 package com.space.config;
 
+import com.space.metrics.Metrics;
+import com.space.metrics.PoolMetrics;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
@@ -13,6 +20,7 @@ import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import javax.cache.CacheManager;
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 import java.util.Properties;
@@ -21,8 +29,20 @@ import java.util.Properties;
 @EnableTransactionManagement
 @ComponentScan("com.space.service")
 @EnableJpaRepositories(basePackages = "com.space.repository")
+@Import({CacheConfig.class, MetricsConfig.class})
+@PropertySource("classpath:cosmoport.properties")
+@PropertySource(value = "file:${cosmoport.config:cosmoport.properties}", ignoreResourceNotFound = true)
 public class AppConfig {
 
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private CacheManager jcacheManager;
+
+    @Autowired
+    private Metrics metrics;
+
     @Bean
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
@@ -32,18 +52,49 @@ public class AppConfig {
         JpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
         em.setJpaVendorAdapter(vendorAdapter);
         em.setJpaProperties(additionalProperties());
+        if (env.getProperty("cache.enabled", Boolean.class, true))
+            CacheConfig.enableSecondLevelCache(em, jcacheManager);
+        else
+            CacheConfig.disableSecondLevelCache(em);
+        MetricsConfig.countStatements(em, metrics);
 
         return em;
     }
 
-    @Bean
+    @Bean(destroyMethod = "close")
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl("jdbc:mysql://localhost:3306/cosmoport?serverTimezone=UTC");
-        dataSource.setUsername("root");
-        dataSource.setPassword("root");
-        return dataSource;
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("cosmoport");
+        config.setDriverClassName(env.getRequiredProperty("db.driver"));
+        config.setJdbcUrl(env.getRequiredProperty("db.url"));
+        config.setUsername(env.getRequiredProperty("db.username"));
+        config.setPassword(env.getRequiredProperty("db.password"));
+        config.setMinimumIdle(env.getRequiredProperty("db.pool.minIdle", Integer.class));
+        config.setMaximumPoolSize(env.getRequiredProperty("db.pool.maxSize", Integer.class));
+        config.setConnectionTimeout(env.getRequiredProperty("db.pool.connectionTimeoutMs", Long.class));
+        config.setIdleTimeout(env.getRequiredProperty("db.pool.idleTimeoutMs", Long.class));
+        config.setMaxLifetime(env.getRequiredProperty("db.pool.maxLifetimeMs", Long.class));
+        config.setLeakDetectionThreshold(env.getRequiredProperty("db.pool.leakDetectionThresholdMs", Long.class));
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", env.getRequiredProperty("db.pool.prepStmtCacheSize"));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", env.getRequiredProperty("db.pool.prepStmtCacheSqlLimit"));
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("useCursorFetch", "true");
+        config.setMetricsTrackerFactory(poolMetrics());
+        config.setRegisterMbeans(true);
+        return new HikariDataSource(config);
+    }
+
+    // Регистрируется в MyWebAppInit через DelegatingFilterProxy
+    @Bean
+    public CompressionFilter compressionFilter() {
+        return new CompressionFilter(env.getProperty("compression.minSize", Integer.class, 1024));
+    }
+
+    @Bean
+    public PoolMetrics poolMetrics() {
+        return new PoolMetrics();
     }
 
     @Bean
@@ -62,6 +113,8 @@ public class AppConfig {
     private Properties additionalProperties() {
         Properties properties = new Properties();
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
+        properties.setProperty("hibernate.jdbc.batch_size", env.getRequiredProperty("db.batchSize"));
+        properties.setProperty("hibernate.order_updates", "true");
 
         return properties;
     }
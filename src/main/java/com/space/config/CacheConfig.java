@@ -0,0 +1,66 @@
+package com.space.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+public class CacheConfig {
+
+    public static final String SHIP_REGION = "ship";
+    public static final String QUERY_REGION = "default-query-results-region";
+    public static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Autowired
+    private Environment env;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager jcacheManager() {
+        CachingProvider provider = Caching.getCachingProvider("org.ehcache.jsr107.EhcacheCachingProvider");
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        createCache(cacheManager, SHIP_REGION, env.getProperty("cache.ship.maxEntries", Long.class, 100_000L),
+                env.getProperty("cache.ship.ttlSeconds", Long.class, 600L));
+        createCache(cacheManager, QUERY_REGION, env.getProperty("cache.query.maxEntries", Long.class, 10_000L),
+                env.getProperty("cache.query.ttlSeconds", Long.class, 60L));
+        // Метки времени изменения таблиц не должны вытесняться раньше закэшированных запросов
+        createCache(cacheManager, TIMESTAMPS_REGION, 1_000L, 0L);
+        return cacheManager;
+    }
+
+    public static void enableSecondLevelCache(LocalContainerEntityManagerFactoryBean em, CacheManager cacheManager) {
+        Map<String, Object> properties = em.getJpaPropertyMap();
+        properties.put("hibernate.cache.use_second_level_cache", "true");
+        properties.put("hibernate.cache.use_query_cache", "true");
+        properties.put("hibernate.cache.region.factory_class", "jcache");
+        properties.put("hibernate.javax.cache.cache_manager", cacheManager);
+        properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        properties.put("hibernate.generate_statistics", "true");
+    }
+
+    // hibernate-jcache в classpath включает кэш второго уровня сам, поэтому выключаем его явно
+    public static void disableSecondLevelCache(LocalContainerEntityManagerFactoryBean em) {
+        em.getJpaPropertyMap().put("hibernate.cache.use_second_level_cache", "false");
+        em.getJpaPropertyMap().put("hibernate.cache.use_query_cache", "false");
+    }
+
+    private static void createCache(CacheManager cacheManager, String name, long maxEntries, long ttlSeconds) {
+        if (cacheManager.getCache(name) != null) return;
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries));
+        if (ttlSeconds > 0) builder = builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ttlSeconds)));
+        cacheManager.createCache(name, Eh107Configuration.fromEhcacheCacheConfiguration(builder));
+        cacheManager.enableStatistics(name, true);
+    }
+}
@@ -0,0 +1,291 @@
+package com.space.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Сжатие ответов gzip/deflate по Accept-Encoding. Первые minSize байт копятся в буфере: если тело
+// оказалось меньше или ответ сбрасывается раньше (потоковые отчёты импорта), он уходит как есть.
+// Асинхронный ответ дописывается после повторной диспетчеризации, обёртка хранится в атрибуте запроса
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+    private static final String DEFLATE = "deflate";
+    private static final String RESPONSE = CompressionFilter.class.getName() + ".response";
+
+    private final int minSize;
+
+    public CompressionFilter(int minSize) {
+        this.minSize = minSize;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CompressingResponse compressing = (CompressingResponse) request.getAttribute(RESPONSE);
+        if (compressing == null) {
+            if (isAsyncDispatch(request)) {
+                chain.doFilter(request, response);
+                return;
+            }
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            String encoding = negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            if (encoding == null || "HEAD".equals(request.getMethod())) {
+                chain.doFilter(request, response);
+                return;
+            }
+            compressing = new CompressingResponse(response, encoding);
+            request.setAttribute(RESPONSE, compressing);
+        }
+        try {
+            chain.doFilter(request, compressing);
+        } catch (IOException | ServletException | RuntimeException e) {
+            compressing.end();
+            throw e;
+        }
+        if (!isAsyncStarted(request)) compressing.finish();
+    }
+
+    // gzip предпочтительнее deflate; q=0 означает запрет кодировки
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) return null;
+        boolean gzip = false;
+        boolean deflate = false;
+        boolean any = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            boolean accepted = true;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            if (coding.equals(GZIP) || coding.equals("x-gzip")) gzip = accepted;
+            else if (coding.equals(DEFLATE)) deflate = accepted;
+            else if (coding.equals("*")) any = accepted;
+        }
+        if (gzip) return GZIP;
+        if (deflate) return DEFLATE;
+        return any ? GZIP : null;
+    }
+
+    private static boolean isCompressible(String contentType) {
+        if (contentType == null) return false;
+        String type = contentType.toLowerCase();
+        return type.startsWith("text/") || type.startsWith("application/json") || type.startsWith("application/x-ndjson")
+                || type.startsWith("application/javascript") || type.contains("+json");
+    }
+
+    private class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final String encoding;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private OutputStream target;            //null, пока решение о сжатии не принято
+        private DeflaterOutputStream compressor;
+        private Deflater deflater;              //Нативная память zlib, освобождается end()
+        private long contentLength = -1;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response, String encoding) {
+            super(response);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (outputStream == null) outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    if (target == null && buffer.size() + len > minSize) commit(true, false);
+                    if (target == null) buffer.write(b, off, len);
+                    else target.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    if (target == null && buffer.size() > 0) commit(false, false);
+                    if (target != null) target.flush();
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    try {
+                        getResponse().getOutputStream().setWriteListener(writeListener);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null)
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            contentLength = len;
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            contentLength = len;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) contentLength = Long.parseLong(value);
+            else super.setHeader(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) contentLength = Long.parseLong(value);
+            else super.addHeader(name, value);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            discard();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            discard();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            discard();
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            contentLength = -1;
+            if (target == null) buffer.reset();
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (target == null) buffer.reset();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) writer.flush();
+            getOutputStream().flush();
+            super.flushBuffer();
+        }
+
+        void finish() throws IOException {
+            try {
+                if (writer != null) writer.flush();
+                if (target == null) commit(false, true);
+                if (compressor != null) compressor.finish();
+            } finally {
+                end();
+            }
+        }
+
+        // Ни finish(), ни закрытие потока ответа контейнером не освобождают Deflater, это делается явно
+        void end() {
+            if (deflater != null) deflater.end();
+        }
+
+        // last - тело целиком в буфере, его длина и есть Content-Length
+        private void commit(boolean compress, boolean last) throws IOException {
+            OutputStream raw = getResponse().getOutputStream();
+            if (compress && isCompressible(getContentType()) && !containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+                super.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+                if (encoding.equals(GZIP)) {
+                    Gzip gzip = new Gzip(raw);
+                    deflater = gzip.deflater();
+                    compressor = gzip;
+                } else {
+                    deflater = new Deflater();
+                    compressor = new DeflaterOutputStream(raw, deflater, 8192, true);
+                }
+                target = compressor;
+            } else {
+                if (contentLength >= 0) super.setContentLengthLong(contentLength);
+                else if (last && buffer.size() > 0) super.setContentLengthLong(buffer.size());
+                target = raw;
+            }
+            buffer.writeTo(target);
+            buffer = null;
+        }
+
+        // Тело ошибки пишет контейнер, накопленное приложением отбрасывается
+        private void discard() {
+            if (target != null) return;
+            buffer = null;
+            target = new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+            };
+        }
+    }
+
+    private static class Gzip extends GZIPOutputStream {
+
+        Gzip(OutputStream out) throws IOException {
+            super(out, 8192, true);
+        }
+
+        Deflater deflater() {
+            return def;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.space.config;
+
+import com.space.metrics.Metrics;
+import com.space.metrics.SqlStatementCounter;
+import com.space.metrics.TimingPostProcessor;
+import com.space.repository.Repository;
+import com.space.service.ShipService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+// Постпроцессоры объявлены static, чтобы не создавать конфигурацию раньше остальных бинов
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public static Metrics metrics() {
+        return new Metrics();
+    }
+
+    @Bean
+    public static TimingPostProcessor serviceTiming(Metrics metrics) {
+        return new TimingPostProcessor(ShipService.class, metrics.service());
+    }
+
+    @Bean
+    public static TimingPostProcessor repositoryTiming(Metrics metrics) {
+        return new TimingPostProcessor(Repository.class, metrics.repository());
+    }
+
+    public static void countStatements(LocalContainerEntityManagerFactoryBean em, Metrics metrics) {
+        em.getJpaPropertyMap().put(SqlStatementCounter.PROPERTY, new SqlStatementCounter(metrics));
+    }
+}
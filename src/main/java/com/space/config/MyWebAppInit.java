@@ -1,7 +1,10 @@
 package com.space.config;
 
+import org.springframework.web.filter.DelegatingFilterProxy;
 import org.springframework.web.servlet.support.AbstractAnnotationConfigDispatcherServletInitializer;
 
+import javax.servlet.Filter;
+
 public class MyWebAppInit extends AbstractAnnotationConfigDispatcherServletInitializer {
 
     @Override
@@ -18,4 +21,9 @@ public class MyWebAppInit extends AbstractAnnotationConfigDispatcherServletIniti
     protected String[] getServletMappings() {
         return new String[]{"/"};
     }
+
+    @Override
+    protected Filter[] getServletFilters() {
+        return new Filter[]{new DelegatingFilterProxy("compressionFilter")};
+    }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.space.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.metrics.Histogram;
+import com.space.metrics.Metrics;
+import com.space.model.Ship;
+import com.space.model.ShipPage;
+import com.space.service.ShipJsonCache;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+// Запись Ship, списков Ship и ShipPage из кэшированных байтов JSON каждого корабля. Байты получаются тем же
+// ObjectMapper, что и у MappingJackson2HttpMessageConverter, поэтому ответ совпадает с обычной сериализацией.
+// Чтение и прочие типы остаются Jackson-конвертеру
+public class ShipJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private static final byte[] PAGE_START = "{\"ships\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAGE_COUNT = ",\"count\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+    private final ShipJsonCache cache;
+    private final Histogram shipTime;
+    private final Histogram pageTime;
+    private final Histogram listTime;
+
+    public ShipJsonHttpMessageConverter(ObjectMapper objectMapper, ShipJsonCache cache, Metrics metrics) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        setDefaultCharset(StandardCharsets.UTF_8);
+        this.objectMapper = objectMapper;
+        this.cache = cache;
+        this.shipTime = metrics == null ? null : metrics.serialization().get("ship");
+        this.pageTime = metrics == null ? null : metrics.serialization().get("page");
+        this.listTime = metrics == null ? null : metrics.serialization().get("list");
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == Ship.class || clazz == ShipPage.class;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(mediaType) && (supports(clazz) || isShipCollection(type));
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Ship JSON converter is write-only", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Ship JSON converter is write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        long start = System.nanoTime();
+        OutputStream body = outputMessage.getBody();
+        if (value instanceof Ship) {
+            body.write(bytesOf((Ship) value));
+            record(shipTime, start);
+        } else if (value instanceof ShipPage) {
+            ShipPage page = (ShipPage) value;
+            body.write(PAGE_START);
+            writeShips(page.getShips(), body);
+            body.write(PAGE_COUNT);
+            body.write(Long.toString(page.getCount()).getBytes(StandardCharsets.UTF_8));
+            body.write('}');
+            record(pageTime, start);
+        } else {
+            writeShips((Collection<?>) value, body);
+            record(listTime, start);
+        }
+    }
+
+    // Включает запись в поток ответа (буфер CompressionFilter или сокет)
+    private static void record(Histogram histogram, long start) {
+        if (histogram != null) histogram.record(System.nanoTime() - start);
+    }
+
+    private void writeShips(Collection<?> ships, OutputStream body) throws IOException {
+        if (ships == null) {
+            body.write(NULL);
+            return;
+        }
+        body.write('[');
+        boolean first = true;
+        for (Object ship : ships) {
+            if (!first) body.write(',');
+            body.write(ship == null ? NULL : bytesOf((Ship) ship));
+            first = false;
+        }
+        body.write(']');
+    }
+
+    private byte[] bytesOf(Ship ship) throws IOException {
+        byte[] json = cache == null ? null : cache.get(ship);
+        if (json == null) {
+            json = objectMapper.writeValueAsBytes(ship);
+            if (cache != null) cache.put(ship, json);
+        }
+        return json;
+    }
+
+    private static boolean isShipCollection(Type type) {
+        if (!(type instanceof ParameterizedType)) return false;
+        ParameterizedType parameterized = (ParameterizedType) type;
+        Type raw = parameterized.getRawType();
+        return raw instanceof Class && Collection.class.isAssignableFrom((Class<?>) raw)
+                && parameterized.getActualTypeArguments().length == 1
+                && parameterized.getActualTypeArguments()[0] == Ship.class;
+    }
+}
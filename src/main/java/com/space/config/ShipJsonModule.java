@@ -0,0 +1,170 @@
+package com.space.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.space.model.Ship;
+
+import java.io.IOException;
+import java.util.Date;
+
+// Ручные сериализатор и десериализатор Ship вместо рефлексии по полям. Форма JSON та же, что у ObjectMapper
+// с видимостью полей: поля в порядке объявления, null пишется, prodDate - миллисекунды, version не выводится.
+// Нестандартные значения (строки вместо чисел, даты строкой) разбираются стандартными десериализаторами
+public class ShipJsonModule extends SimpleModule {
+
+    public ShipJsonModule() {
+        super("ShipJsonModule");
+        addSerializer(Ship.class, new ShipSerializer());
+        addDeserializer(Ship.class, new ShipDeserializer());
+    }
+
+    static class ShipSerializer extends StdSerializer<Ship> {
+
+        // Имена полей кодируются один раз, как в BeanPropertyWriter
+        private static final SerializedString ID = new SerializedString("id");
+        private static final SerializedString NAME = new SerializedString("name");
+        private static final SerializedString PLANET = new SerializedString("planet");
+        private static final SerializedString SHIP_TYPE = new SerializedString("shipType");
+        private static final SerializedString PROD_DATE = new SerializedString("prodDate");
+        private static final SerializedString IS_USED = new SerializedString("isUsed");
+        private static final SerializedString SPEED = new SerializedString("speed");
+        private static final SerializedString CREW_SIZE = new SerializedString("crewSize");
+        private static final SerializedString RATING = new SerializedString("rating");
+
+        ShipSerializer() {
+            super(Ship.class);
+        }
+
+        @Override
+        public void serialize(Ship ship, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(ship);
+            gen.writeFieldName(ID);
+            if (ship.getId() == null) gen.writeNull();
+            else gen.writeNumber(ship.getId());
+            gen.writeFieldName(NAME);
+            gen.writeString(ship.getName());
+            gen.writeFieldName(PLANET);
+            gen.writeString(ship.getPlanet());
+            gen.writeFieldName(SHIP_TYPE);
+            gen.writeString(ship.getShipType());
+            gen.writeFieldName(PROD_DATE);
+            if (ship.getProdDate() == null) gen.writeNull();
+            else provider.defaultSerializeDateValue(ship.getProdDate(), gen);
+            gen.writeFieldName(IS_USED);
+            if (ship.getUsed() == null) gen.writeNull();
+            else gen.writeBoolean(ship.getUsed());
+            gen.writeFieldName(SPEED);
+            writeDouble(gen, ship.getSpeed());
+            gen.writeFieldName(CREW_SIZE);
+            if (ship.getCrewSize() == null) gen.writeNull();
+            else gen.writeNumber(ship.getCrewSize());
+            gen.writeFieldName(RATING);
+            writeDouble(gen, ship.getRating());
+            gen.writeEndObject();
+        }
+
+        private static void writeDouble(JsonGenerator gen, Double value) throws IOException {
+            if (value == null) {
+                gen.writeNull();
+                return;
+            }
+            String plain = plainCents(value);
+            if (plain != null) gen.writeNumber(plain);
+            else gen.writeNumber(value);
+        }
+
+        // Скорость и рейтинг хранятся с двумя знаками после запятой, а Double.toString для них - основная
+        // стоимость сериализации. Для таких чисел по модулю меньше 10000 строка собирается из целых сотых
+        // и совпадает с Double.toString (проверено перебором в ShipJsonModuleTest); иначе null
+        static String plainCents(double value) {
+            if (!(value > -10000 && value < 10000)) return null;
+            long cents = Math.round(value * 100);
+            if (cents / 100.0 != value || (cents == 0 && Double.doubleToRawLongBits(value) != 0)) return null;
+            long abs = Math.abs(cents);
+            StringBuilder plain = new StringBuilder(10);
+            if (cents < 0) plain.append('-');
+            plain.append(abs / 100).append('.');
+            long fraction = abs % 100;
+            if (fraction == 0) plain.append('0');
+            else if (fraction < 10) plain.append('0').append(fraction);
+            else if (fraction % 10 == 0) plain.append(fraction / 10);
+            else plain.append(fraction);
+            return plain.toString();
+        }
+    }
+
+    static class ShipDeserializer extends StdDeserializer<Ship> {
+
+        ShipDeserializer() {
+            super(Ship.class);
+        }
+
+        @Override
+        public Ship deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.START_OBJECT) token = p.nextToken();
+            else if (token != JsonToken.FIELD_NAME) return (Ship) ctxt.handleUnexpectedToken(Ship.class, p);
+            Ship ship = new Ship();
+            for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                String field = p.getCurrentName();
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "id":
+                        ship.setId(value == JsonToken.VALUE_NUMBER_INT ? Long.valueOf(p.getLongValue())
+                                : other(p, ctxt, Long.class));
+                        break;
+                    case "name":
+                        ship.setName(value == JsonToken.VALUE_STRING ? p.getText() : other(p, ctxt, String.class));
+                        break;
+                    case "planet":
+                        ship.setPlanet(value == JsonToken.VALUE_STRING ? p.getText() : other(p, ctxt, String.class));
+                        break;
+                    case "shipType":
+                        ship.setShipType(value == JsonToken.VALUE_STRING ? p.getText() : other(p, ctxt, String.class));
+                        break;
+                    case "prodDate":
+                        ship.setProdDate(value == JsonToken.VALUE_NUMBER_INT ? new Date(p.getLongValue())
+                                : other(p, ctxt, Date.class));
+                        break;
+                    case "isUsed":
+                        ship.setUsed(value == JsonToken.VALUE_TRUE ? Boolean.TRUE
+                                : value == JsonToken.VALUE_FALSE ? Boolean.FALSE : other(p, ctxt, Boolean.class));
+                        break;
+                    case "speed":
+                        ship.setSpeed(value == JsonToken.VALUE_NUMBER_FLOAT ? Double.valueOf(p.getDoubleValue())
+                                : other(p, ctxt, Double.class));
+                        break;
+                    case "crewSize":
+                        boolean plainInt = value == JsonToken.VALUE_NUMBER_INT
+                                && p.getNumberType() == JsonParser.NumberType.INT;
+                        ship.setCrewSize(plainInt ? Integer.valueOf(p.getIntValue()) : other(p, ctxt, Integer.class));
+                        break;
+                    case "rating":
+                        ship.setRating(value == JsonToken.VALUE_NUMBER_FLOAT ? Double.valueOf(p.getDoubleValue())
+                                : other(p, ctxt, Double.class));
+                        break;
+                    case "version":
+                        // @JsonIgnore: значение от клиента не принимается
+                        p.skipChildren();
+                        break;
+                    default:
+                        handleUnknownProperty(p, ctxt, ship, field);
+                }
+            }
+            return ship;
+        }
+
+        // null и приведения типов (строка вместо числа, дата строкой) - как у стандартных десериализаторов
+        private static <T> T other(JsonParser p, DeserializationContext ctxt, Class<T> type) throws IOException {
+            if (p.currentToken() == JsonToken.VALUE_NULL) return null;
+            return ctxt.readValue(p, type);
+        }
+    }
+}
@@ -2,13 +2,22 @@ package com.space.config;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.metrics.Metrics;
+import com.space.metrics.RequestMetricsInterceptor;
+import com.space.service.ShipJsonCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -22,6 +31,14 @@ import java.util.List;
 @ComponentScan("com.space.controller")
 public class WebConfig implements WebMvcConfigurer {
 
+    @Autowired(required = false)
+    private ShipJsonCache shipJsonCache;
+
+    @Autowired(required = false)
+    private Metrics metrics;
+
+    @Value("${async.timeoutMs:0}")
+    private long asyncTimeoutMs;
 
     @Bean
     public ViewResolver internalResourceViewResolver() {
@@ -42,11 +59,29 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addResourceHandler("/resources/**").addResourceLocations("/resources/");
     }
 
+    // 0 - без ограничения: выгрузка всего флота может идти дольше таймаута контейнера по умолчанию
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeoutMs);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (metrics != null) registry.addInterceptor(new RequestMetricsInterceptor(metrics));
+    }
+
+    @Bean
+    public ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        objectMapper.registerModule(new ShipJsonModule());
+        return objectMapper;
+    }
+
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
-        converter.getObjectMapper().setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
-        converter.getObjectMapper().setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
-        converters.add(converter);
+        converters.add(new ShipJsonHttpMessageConverter(objectMapper(), shipJsonCache, metrics));
+        converters.add(new MappingJackson2HttpMessageConverter(objectMapper()));
     }
 }
\ No newline at end of file
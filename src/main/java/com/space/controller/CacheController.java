@@ -0,0 +1,23 @@
+package com.space.controller;
+
+import com.space.model.CacheRegionStats;
+import com.space.service.CacheStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("rest/cache")
+public class CacheController {
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @GetMapping("/stats")
+    public List<CacheRegionStats> getCacheStats() {
+        return cacheStatsService.getRegionStats();
+    }
+}
@@ -1,61 +1,190 @@
 package com.space.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.space.exceptions.PreconditionFailedException;
+import com.space.model.BatchItemResult;
+import com.space.model.FleetStats;
+import com.space.model.ImportReport;
 import com.space.model.Ship;
+import com.space.model.ShipPage;
 import com.space.model.ShipType;
+import com.space.service.FleetVersion;
+import com.space.service.QueryExecutors;
+import com.space.service.QueryPlan;
+import com.space.service.QueryPlanner;
+import com.space.service.ShipReader;
 import com.space.service.ShipService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("rest/ships")
 public class Controller {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String QUERY_PLAN_HEADER = "X-Query-Plan";
+
     @Autowired
     private ShipService shipService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FleetVersion fleetVersion;
+
+    @Autowired
+    private QueryExecutors queryExecutors;
+
+    @Autowired
+    private QueryPlanner queryPlanner;
+
+    // Список, страница, count, stats и export выполняются на пулах QueryExecutors, поток контейнера освобождается
     @GetMapping()
-    public List<Ship> getAllShips(@RequestParam(value = "name", required = false) String name,
-                                  @RequestParam(value = "planet", required = false) String planet,
-                                  @RequestParam(value = "shipType", required = false) ShipType shipType,
-                                  @RequestParam(value = "after", required = false) Long after,
-                                  @RequestParam(value = "before", required = false) Long before,
-                                  @RequestParam(value = "isUsed", required = false) Boolean isUsed,
-                                  @RequestParam(value = "minSpeed", required = false) Double minSpeed,
-                                  @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
-                                  @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
-                                  @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
-                                  @RequestParam(value = "minRating", required = false) Double minRating,
-                                  @RequestParam(value = "maxRating", required = false) Double maxRating,
-                                  @RequestParam(value = "order", required = false) ShipOrder order,
-                                  @RequestParam(value = "pageNumber", required = false) Integer pageNumber,
-                                  @RequestParam(value = "pageSize", required = false) Integer pageSize) {
-        List<Ship> listOfAllShipsUnsorted = shipService.getAllShips(name, planet, shipType, after, before, isUsed,
-                                            minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
-        return shipService.pagedShips(listOfAllShipsUnsorted, pageNumber, pageSize, order);
+    public CompletableFuture<ResponseEntity<List<Ship>>> getAllShips(@RequestParam(value = "name", required = false) String name,
+                                                                     @RequestParam(value = "planet", required = false) String planet,
+                                                                     @RequestParam(value = "shipType", required = false) ShipType shipType,
+                                                                     @RequestParam(value = "after", required = false) Long after,
+                                                                     @RequestParam(value = "before", required = false) Long before,
+                                                                     @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                                                                     @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                                                                     @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                                                                     @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                                                                     @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                                                                     @RequestParam(value = "minRating", required = false) Double minRating,
+                                                                     @RequestParam(value = "maxRating", required = false) Double maxRating,
+                                                                     @RequestParam(value = "order", required = false) ShipOrder order,
+                                                                     @RequestParam(value = "pageNumber", required = false) Integer pageNumber,
+                                                                     @RequestParam(value = "pageSize", required = false) Integer pageSize,
+                                                                     @RequestParam(value = "cursor", required = false) String cursor,
+                                                                     WebRequest request) {
+        if (request.checkNotModified(fleetVersion.etag())) return null;
+        if (cursor == null) return queryExecutors.submit(QueryExecutors.LIST, () -> planned(
+                shipService.pagedShips(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                        minCrewSize, maxCrewSize, minRating, maxRating, pageNumber, pageSize, order)));
+
+        ShipOrder shipOrder = order == null ? ShipOrder.ID : order;
+        return queryExecutors.submit(QueryExecutors.LIST, () -> {
+            List<Ship> ships = shipService.shipsAfter(name, planet, shipType, after, before, isUsed, minSpeed,
+                    maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating,
+                    cursor.isEmpty() ? null : ShipCursor.decode(cursor), pageSize, shipOrder);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (!ships.isEmpty() && ships.size() == (pageSize == null ? 3 : pageSize))
+                response.header(NEXT_CURSOR_HEADER, ShipCursor.after(ships.get(ships.size() - 1), shipOrder).encode());
+            return response.body(ships);
+        });
+    }
+
+    @GetMapping("/page")
+    public CompletableFuture<ResponseEntity<ShipPage>> getPageOfShips(@RequestParam(value = "name", required = false) String name,
+                                                                      @RequestParam(value = "planet", required = false) String planet,
+                                                                      @RequestParam(value = "shipType", required = false) ShipType shipType,
+                                                                      @RequestParam(value = "after", required = false) Long after,
+                                                                      @RequestParam(value = "before", required = false) Long before,
+                                                                      @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                                                                      @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                                                                      @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                                                                      @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                                                                      @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                                                                      @RequestParam(value = "minRating", required = false) Double minRating,
+                                                                      @RequestParam(value = "maxRating", required = false) Double maxRating,
+                                                                      @RequestParam(value = "order", required = false) ShipOrder order,
+                                                                      @RequestParam(value = "pageNumber", required = false) Integer pageNumber,
+                                                                      @RequestParam(value = "pageSize", required = false) Integer pageSize,
+                                                                      WebRequest request) {
+        if (request.checkNotModified(fleetVersion.etag())) return null;
+        return queryExecutors.submit(QueryExecutors.LIST, () -> planned(shipService.pagedShipsWithCount(name, planet,
+                shipType, after, before, isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating,
+                pageNumber, pageSize, order)));
     }
 
     @GetMapping("/count")
-    public Integer getCountOfShips(@RequestParam(value = "name", required = false) String name,
-                                   @RequestParam(value = "planet", required = false) String planet,
-                                   @RequestParam(value = "shipType", required = false) ShipType shipType,
-                                   @RequestParam(value = "after", required = false) Long after,
-                                   @RequestParam(value = "before", required = false) Long before,
-                                   @RequestParam(value = "isUsed", required = false) Boolean isUsed,
-                                   @RequestParam(value = "minSpeed", required = false) Double minSpeed,
-                                   @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
-                                   @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
-                                   @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
-                                   @RequestParam(value = "minRating", required = false) Double minRating,
-                                   @RequestParam(value = "maxRating", required = false) Double maxRating) {
-        return shipService.getAllShips(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
-                                       minCrewSize, maxCrewSize, minRating, maxRating).size();
+    public CompletableFuture<ResponseEntity<Long>> getCountOfShips(@RequestParam(value = "name", required = false) String name,
+                                                   @RequestParam(value = "planet", required = false) String planet,
+                                                   @RequestParam(value = "shipType", required = false) ShipType shipType,
+                                                   @RequestParam(value = "after", required = false) Long after,
+                                                   @RequestParam(value = "before", required = false) Long before,
+                                                   @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                                                   @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                                                   @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                                                   @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                                                   @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                                                   @RequestParam(value = "minRating", required = false) Double minRating,
+                                                   @RequestParam(value = "maxRating", required = false) Double maxRating,
+                                                   WebRequest request) {
+        if (request.checkNotModified(fleetVersion.etag())) return null;
+        return queryExecutors.submit(QueryExecutors.COUNT, () -> planned(shipService.countShips(name, planet, shipType,
+                after, before, isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating)));
+    }
+
+    // Агрегаты по фильтру одним проходом, считаются на пуле count
+    @GetMapping("/stats")
+    public CompletableFuture<ResponseEntity<FleetStats>> getShipStats(@RequestParam(value = "name", required = false) String name,
+                                                                      @RequestParam(value = "planet", required = false) String planet,
+                                                                      @RequestParam(value = "shipType", required = false) ShipType shipType,
+                                                                      @RequestParam(value = "after", required = false) Long after,
+                                                                      @RequestParam(value = "before", required = false) Long before,
+                                                                      @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                                                                      @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                                                                      @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                                                                      @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                                                                      @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                                                                      @RequestParam(value = "minRating", required = false) Double minRating,
+                                                                      @RequestParam(value = "maxRating", required = false) Double maxRating,
+                                                                      WebRequest request) {
+        if (request.checkNotModified(fleetVersion.etag())) return null;
+        return queryExecutors.submit(QueryExecutors.COUNT, () -> planned(shipService.shipStats(name, planet, shipType,
+                after, before, isUsed, minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating)));
+    }
+
+    @GetMapping("/export")
+    public CompletableFuture<Void> exportShips(@RequestParam(value = "name", required = false) String name,
+                                               @RequestParam(value = "planet", required = false) String planet,
+                                               @RequestParam(value = "shipType", required = false) ShipType shipType,
+                                               @RequestParam(value = "after", required = false) Long after,
+                                               @RequestParam(value = "before", required = false) Long before,
+                                               @RequestParam(value = "isUsed", required = false) Boolean isUsed,
+                                               @RequestParam(value = "minSpeed", required = false) Double minSpeed,
+                                               @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
+                                               @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
+                                               @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
+                                               @RequestParam(value = "minRating", required = false) Double minRating,
+                                               @RequestParam(value = "maxRating", required = false) Double maxRating,
+                                               @RequestParam(value = "order", required = false) ShipOrder order,
+                                               @RequestParam(value = "format", required = false) ShipFormat format,
+                                               HttpServletResponse response) {
+        ShipFormat shipFormat = format == null ? ShipFormat.NDJSON : format;
+        response.setContentType(shipFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        return queryExecutors.submit(QueryExecutors.EXPORT, () -> {
+            try (ShipExportWriter writer = ShipExportWriter.of(shipFormat, response.getOutputStream(), objectMapper)) {
+                shipService.exportShips(name, planet, shipType, after, before, isUsed, minSpeed, maxSpeed,
+                                        minCrewSize, maxCrewSize, minRating, maxRating, order, writer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
     }
 
     @GetMapping("/{id}")
-    public Ship getShipById(@PathVariable String id) {
-        return shipService.getShipById(id);
+    public Ship getShipById(@PathVariable String id, WebRequest request) {
+        Ship ship = shipService.getShipById(id);
+        if (request.checkNotModified(etagOf(ship))) return null;
+        return ship;
     }
 
     @PostMapping()
@@ -63,13 +192,83 @@ public class Controller {
         return shipService.createShip(ship);
     }
 
+    @PostMapping("/batch")
+    public List<BatchItemResult> createShips(@RequestBody List<Ship> ships) {
+        return shipService.createShips(ships);
+    }
+
+    // Ответ - NDJSON: отчёт после каждой записанной пачки, последняя строка с done=true
+    @PostMapping("/import")
+    public void importShips(@RequestParam(value = "format", required = false) ShipFormat format,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (format == null) format = ShipFormat.NDJSON;
+        response.setContentType(ShipFormat.NDJSON.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        ShipReader reader = ShipImportReader.of(format, request.getInputStream(), objectMapper);
+        ObjectWriter writer = objectMapper.writerFor(ImportReport.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            // Строки отчёта разделяет только '\n', без пробела-разделителя корневых значений Jackson
+            generator.setRootValueSeparator(null);
+            shipService.importShips(reader, report -> {
+                try {
+                    writer.writeValue(generator, report);
+                    generator.writeRaw('\n');
+                    generator.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @PostMapping("/batch/update")
+    public List<BatchItemResult> updateShips(@RequestBody List<Ship> ships) {
+        return shipService.updateShips(ships);
+    }
+
+    @PostMapping("/batch/delete")
+    public List<BatchItemResult> deleteShips(@RequestBody List<Long> ids) {
+        return shipService.deleteShips(ids);
+    }
+
     @PostMapping("/{id}")
-    public Ship updateShip(@PathVariable String id, @RequestBody Ship ship) {
-        return shipService.updateShip(id, ship);
+    public ResponseEntity<Ship> updateShip(@PathVariable String id, @RequestBody Ship ship,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Ship updated = shipService.updateShip(id, ship, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(etagOf(updated)).body(updated);
     }
 
     @DeleteMapping("/{id}")
     public void deleteShip(@PathVariable String id) {
         shipService.deleteShip(id);
     }
+
+    // Решение планировщика в заголовке, если включён planner.debugHeader
+    private <T> ResponseEntity<T> planned(T body) {
+        QueryPlan plan = queryPlanner.takeLastPlan();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (plan != null) response.header(QUERY_PLAN_HEADER, plan.toString());
+        return response.body(body);
+    }
+
+    // Сильный ETag корабля - его версия
+    private static String etagOf(Ship ship) {
+        return "\"" + ship.getVersion() + "\"";
+    }
+
+    // Принимается "*" или одна сильная метка вида "<версия>"; слабая или чужая метка совпасть не может
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) return null;
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"')
+            throw new PreconditionFailedException();
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException();
+        }
+    }
 }
\ No newline at end of file
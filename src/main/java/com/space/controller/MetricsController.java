@@ -0,0 +1,70 @@
+package com.space.controller;
+
+import com.space.metrics.Metrics;
+import com.space.metrics.PoolMetrics;
+import com.space.metrics.PrometheusText;
+import com.space.model.CacheRegionStats;
+import com.space.service.CacheStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+public class MetricsController {
+
+    @Autowired
+    private Metrics metrics;
+
+    @Autowired(required = false)
+    private PoolMetrics poolMetrics;
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @GetMapping("rest/metrics")
+    public void getMetrics(HttpServletResponse response) throws IOException {
+        PrometheusText out = new PrometheusText();
+        metrics.write(out);
+        if (poolMetrics != null) writePool(out);
+        writeCaches(out, cacheStatsService.getRegionStats());
+        response.setContentType(PrometheusText.CONTENT_TYPE);
+        response.getWriter().write(out.toString());
+    }
+
+    private void writePool(PrometheusText out) {
+        out.family("cosmoport_db_pool_connections", "gauge", "Connections in the Hikari pool by state.");
+        out.sample("cosmoport_db_pool_connections", "state", "active", poolMetrics.getActiveConnections());
+        out.sample("cosmoport_db_pool_connections", "state", "idle", poolMetrics.getIdleConnections());
+        out.sample("cosmoport_db_pool_connections", "state", "total", poolMetrics.getTotalConnections());
+        out.family("cosmoport_db_pool_waiting_threads", "gauge", "Threads waiting for a pooled connection.");
+        out.sample("cosmoport_db_pool_waiting_threads", poolMetrics.getWaitingThreads());
+        out.family("cosmoport_db_pool_acquisitions_total", "counter", "Connections handed out by the pool.");
+        out.sample("cosmoport_db_pool_acquisitions_total", poolMetrics.getAcquisitions());
+        out.family("cosmoport_db_pool_acquisition_timeouts_total", "counter", "Connection requests that timed out.");
+        out.sample("cosmoport_db_pool_acquisition_timeouts_total", poolMetrics.getAcquisitionTimeouts());
+        out.family("cosmoport_db_pool_acquisition_seconds_max", "gauge", "Longest connection acquisition.");
+        out.sample("cosmoport_db_pool_acquisition_seconds_max", poolMetrics.getMaxAcquisitionMillis() / 1000);
+    }
+
+    private static void writeCaches(PrometheusText out, List<CacheRegionStats> regions) {
+        out.family("cosmoport_cache_hits_total", "counter", "Cache hits by region.");
+        for (CacheRegionStats region : regions)
+            out.sample("cosmoport_cache_hits_total", "region", region.getRegion(), region.getHits());
+        out.family("cosmoport_cache_misses_total", "counter", "Cache misses by region.");
+        for (CacheRegionStats region : regions)
+            out.sample("cosmoport_cache_misses_total", "region", region.getRegion(), region.getMisses());
+        out.family("cosmoport_cache_puts_total", "counter", "Cache puts by region.");
+        for (CacheRegionStats region : regions)
+            out.sample("cosmoport_cache_puts_total", "region", region.getRegion(), region.getPuts());
+        out.family("cosmoport_cache_evictions_total", "counter", "Cache evictions by region.");
+        for (CacheRegionStats region : regions)
+            out.sample("cosmoport_cache_evictions_total", "region", region.getRegion(), region.getEvictions());
+        out.family("cosmoport_cache_entries", "gauge", "Entries held in memory by region.");
+        for (CacheRegionStats region : regions)
+            out.sample("cosmoport_cache_entries", "region", region.getRegion(), region.getSize());
+    }
+}
@@ -0,0 +1,28 @@
+package com.space.controller;
+
+import com.space.model.RatingJobStatus;
+import com.space.service.RatingRecomputeJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("rest/ratings")
+public class RatingController {
+
+    @Autowired
+    private RatingRecomputeJob ratingRecomputeJob;
+
+    @PostMapping("/recompute")
+    public RatingJobStatus startRecompute(@RequestParam(value = "restart", required = false) Boolean restart) {
+        return ratingRecomputeJob.start(Boolean.TRUE.equals(restart));
+    }
+
+    @GetMapping("/recompute")
+    public RatingJobStatus getRecomputeStatus() {
+        return ratingRecomputeJob.status();
+    }
+}
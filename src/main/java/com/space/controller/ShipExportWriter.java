@@ -0,0 +1,120 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.space.model.Ship;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+// Пишет корабли по одному прямо в поток ответа, ничего не накапливая
+abstract class ShipExportWriter implements Consumer<Ship>, Closeable {
+
+    static ShipExportWriter of(ShipFormat format, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return format == ShipFormat.CSV ? new Csv(out) : new NdJson(out, objectMapper);
+    }
+
+    @Override
+    public void accept(Ship ship) {
+        try {
+            write(ship);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    abstract void write(Ship ship) throws IOException;
+
+    private static class NdJson extends ShipExportWriter {
+
+        private final ObjectWriter writer;
+        private final JsonGenerator generator;
+
+        // Строки разделяет только '\n': без пробела-разделителя корневых значений Jackson
+        // и без сброса потока ответа после каждого корабля
+        NdJson(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.writer = objectMapper.writerFor(Ship.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(Ship ship) throws IOException {
+            writer.writeValue(generator, ship);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static class Csv extends ShipExportWriter {
+
+        private final Writer writer;
+
+        Csv(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write("id,name,planet,shipType,prodDate,isUsed,speed,crewSize,rating\n");
+        }
+
+        @Override
+        void write(Ship ship) throws IOException {
+            writer.write(String.valueOf(ship.getId()));
+            writer.write(',');
+            writeText(ship.getName());
+            writer.write(',');
+            writeText(ship.getPlanet());
+            writer.write(',');
+            writeText(ship.getShipType());
+            writer.write(',');
+            if (ship.getProdDate() != null) writer.write(String.valueOf(ship.getProdDate().getTime()));
+            writer.write(',');
+            writeValue(ship.getUsed());
+            writer.write(',');
+            writeValue(ship.getSpeed());
+            writer.write(',');
+            writeValue(ship.getCrewSize());
+            writer.write(',');
+            writeValue(ship.getRating());
+            writer.write('\n');
+        }
+
+        // Пустое поле вместо "null": так его читает ShipImportReader
+        private void writeValue(Object value) throws IOException {
+            if (value != null) writer.write(String.valueOf(value));
+        }
+
+        // Поля с запятой, кавычкой или переводом строки берутся в кавычки по RFC 4180
+        private void writeText(String value) throws IOException {
+            if (value == null) return;
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.exceptions.BadRequestException;
+import com.space.model.Ship;
+import com.space.service.ShipReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Читает корабли по одной записи; в памяти не больше одной записи ограниченной длины
+abstract class ShipImportReader implements ShipReader {
+
+    static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    private final Reader reader;
+    private final StringBuilder record = new StringBuilder();
+
+    ShipImportReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    static ShipImportReader of(ShipFormat format, InputStream in, ObjectMapper objectMapper) {
+        return format == ShipFormat.CSV ? new Csv(in) : new NdJson(in, objectMapper);
+    }
+
+    // Возвращает null в конце потока. Слишком длинная запись дочитывается до конца и отклоняется
+    String readRecord(boolean quotesAllowed) throws IOException {
+        record.setLength(0);
+        boolean quoted = false;
+        boolean tooLong = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c == '"' && quotesAllowed) quoted = !quoted;
+            if (c == '\n' && !quoted) break;
+            if (record.length() < MAX_RECORD_CHARS) record.append((char) c);
+            else tooLong = true;
+        }
+        if (c == -1 && record.length() == 0) return null;
+        if (tooLong) throw new BadRequestException("record is longer than " + MAX_RECORD_CHARS + " characters");
+        int end = record.length();
+        if (end > 0 && record.charAt(end - 1) == '\r') record.setLength(end - 1);
+        return record.toString();
+    }
+
+    private static class NdJson extends ShipImportReader {
+
+        private final ObjectMapper objectMapper;
+
+        NdJson(InputStream in, ObjectMapper objectMapper) {
+            super(in);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Ship next() throws IOException {
+            String line;
+            do {
+                line = readRecord(false);
+                if (line == null) return null;
+            } while (line.trim().isEmpty());
+            try {
+                return objectMapper.readValue(line, Ship.class);
+            } catch (JsonProcessingException e) {
+                throw new BadRequestException("malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static class Csv extends ShipImportReader {
+
+        private Map<String, Integer> columns;
+
+        Csv(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public Ship next() throws IOException {
+            if (columns == null) {
+                String header = readRecord(true);
+                if (header == null) return null;
+                columns = new HashMap<>();
+                List<String> names = split(header);
+                for (int i = 0; i < names.size(); i++) columns.put(names.get(i).trim(), i);
+            }
+            String line;
+            do {
+                line = readRecord(true);
+                if (line == null) return null;
+            } while (line.trim().isEmpty());
+            List<String> fields = split(line);
+            Ship ship = new Ship();
+            ship.setName(text(fields, "name"));
+            ship.setPlanet(text(fields, "planet"));
+            ship.setShipType(text(fields, "shipType"));
+            try {
+                String prodDate = text(fields, "prodDate");
+                if (prodDate != null) ship.setProdDate(new Date(Long.parseLong(prodDate)));
+                String speed = text(fields, "speed");
+                if (speed != null) ship.setSpeed(Double.parseDouble(speed));
+                String crewSize = text(fields, "crewSize");
+                if (crewSize != null) ship.setCrewSize(Integer.parseInt(crewSize));
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("malformed number: " + e.getMessage());
+            }
+            String isUsed = text(fields, "isUsed");
+            if (isUsed != null) {
+                if (!"true".equalsIgnoreCase(isUsed) && !"false".equalsIgnoreCase(isUsed))
+                    throw new BadRequestException("malformed isUsed: " + isUsed);
+                ship.setUsed(Boolean.parseBoolean(isUsed));
+            }
+            return ship;
+        }
+
+        private String text(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) return null;
+            String value = fields.get(index);
+            return value.isEmpty() ? null : value;
+        }
+
+        // Разбор строки по RFC 4180: поля в кавычках могут содержать запятые, "" и переводы строк
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') field.append(c);
+                    else if (i + 1 < line.length() && line.charAt(i + 1) == '"') field.append(line.charAt(++i));
+                    else quoted = false;
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
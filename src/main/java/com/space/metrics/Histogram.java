@@ -0,0 +1,90 @@
+package com.space.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Гистограмма неотрицательных значений с лог-линейными корзинами, как в HdrHistogram: до 64 корзины по единице,
+// дальше на каждую степень двойки 32 корзины. Относительная погрешность перцентилей не больше 1/32.
+// Запись без блокировок: индекс корзины, один инкремент и сумма
+public class Histogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int MAX_MAGNITUDE = 40;                      //2^41 нс - около 37 минут
+    private static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+    private static final int BUCKETS = SUB * (MAX_MAGNITUDE - SUB_BITS + 2);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        else if (value > MAX_VALUE) value = MAX_VALUE;
+        counts.incrementAndGet(index(value));
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) current = max.get();
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) count += copy[i] = counts.get(i);
+        return new Snapshot(copy, count, sum.sum(), max.get());
+    }
+
+    static int index(long value) {
+        if (value < SUB) return (int) value;
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BITS;
+        return SUB * (shift + 1) + (int) (value >>> shift) - SUB;
+    }
+
+    // Наибольшее значение, попадающее в корзину
+    static long highestValue(int index) {
+        if (index < SUB) return index;
+        int shift = index / SUB - 1;
+        long lowest = (long) (SUB + index % SUB) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        // Верхняя граница корзины, в которую попадает значение ранга ceil(q * count), но не больше максимума
+        public long percentile(double q) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(q * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(highestValue(i), max);
+            }
+            return max;
+        }
+    }
+}
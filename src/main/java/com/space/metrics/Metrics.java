@@ -0,0 +1,202 @@
+package com.space.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Метрики горячего пути: время обработчиков, методов сервиса и репозитория, сериализации ответов,
+// число SQL-запросов на HTTP-запрос, строки, просмотренные и отданные фильтрами, и загрузка исполнителей
+// асинхронных запросов, совмещённые одинаковые запросы, решения планировщика и сверки агрегатов флота.
+// Отдаётся в /rest/metrics
+public class Metrics {
+
+    private final Timers http = new Timers("cosmoport_http_request_seconds",
+            "Time spent in controller handlers.", "handler");
+    private final Timers service = new Timers("cosmoport_service_call_seconds",
+            "Time spent in ShipService methods.", "method");
+    private final Timers repository = new Timers("cosmoport_repository_call_seconds",
+            "Time spent in Repository methods.", "method");
+    private final Timers serialization = new Timers("cosmoport_serialization_seconds",
+            "Time spent writing ship JSON responses.", "type");
+    private final Histogram statementsPerRequest = new Histogram();
+    private final LongAdder statements = new LongAdder();
+    private final FilterRows index = new FilterRows("index");
+    private final FilterRows database = new FilterRows("database");
+    private final Timers queueWait = new Timers("cosmoport_executor_queue_wait_seconds",
+            "Time queries wait for an executor thread.", "executor");
+    private final ConcurrentMap<String, Executor> executors = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> coalesced = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> plans = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> reconciliations = new ConcurrentHashMap<>();
+
+    // Счётчик SQL HTTP-запроса, к которому сейчас относится поток; null вне запроса
+    private final ThreadLocal<AtomicLong> requestStatements = new ThreadLocal<>();
+
+    public Timers http() {
+        return http;
+    }
+
+    public Timers service() {
+        return service;
+    }
+
+    public Timers repository() {
+        return repository;
+    }
+
+    public Timers serialization() {
+        return serialization;
+    }
+
+    public Timers queueWait() {
+        return queueWait;
+    }
+
+    public void statementPrepared() {
+        statements.increment();
+        AtomicLong current = requestStatements.get();
+        if (current != null) current.incrementAndGet();
+    }
+
+    public AtomicLong currentRequest() {
+        return requestStatements.get();
+    }
+
+    // Запрос может переходить между потоками (асинхронная обработка), счётчик переносится вместе с ним
+    public void attachRequest(AtomicLong statements) {
+        if (statements == null) requestStatements.remove();
+        else requestStatements.set(statements);
+    }
+
+    public void detachRequest() {
+        requestStatements.remove();
+    }
+
+    public void endRequest(AtomicLong statements) {
+        statementsPerRequest.record(statements.get());
+    }
+
+    public void registerExecutor(String name, ThreadPoolExecutor executor) {
+        executors.put(name, new Executor(executor));
+    }
+
+    public void executorRejected(String name) {
+        Executor executor = executors.get(name);
+        if (executor != null) executor.rejected.increment();
+    }
+
+    // computed - запрос выполнен, joined - дождался чужого вычисления, reused - получил недавний результат
+    public void coalesced(String outcome) {
+        increment(coalesced, outcome);
+    }
+
+    public void queryPlanned(String strategy) {
+        increment(plans, strategy);
+    }
+
+    // loaded - агрегаты собраны впервые, matched - совпали с таблицей, corrected - заменены посчитанными заново,
+    // skipped - сверка пропущена из-за записей во время прохода по таблице
+    public void aggregatesReconciled(String outcome) {
+        increment(reconciliations, outcome);
+    }
+
+    // scanned - строки, которые просмотрел фильтр: все живые строки индекса в памяти; для базы собственный счёт
+    // движка через JDBC не виден, поэтому берётся число подходящих строк, если оно посчитано, иначе отданные
+    public void filterRows(boolean fromIndex, long scanned, long returned) {
+        FilterRows rows = fromIndex ? index : database;
+        rows.calls.increment();
+        rows.scanned.add(scanned);
+        rows.returned.add(returned);
+    }
+
+    public void write(PrometheusText out) {
+        http.write(out);
+        service.write(out);
+        repository.write(out);
+        serialization.write(out);
+        out.family("cosmoport_sql_statements_per_request", "summary",
+                "SQL statements prepared through Hibernate per HTTP request.");
+        out.summary("cosmoport_sql_statements_per_request", null, null, statementsPerRequest.snapshot(), 1);
+        out.family("cosmoport_sql_statements_total", "counter", "SQL statements prepared through Hibernate.");
+        out.sample("cosmoport_sql_statements_total", statements.sum());
+        out.family("cosmoport_filter_calls_total", "counter", "Filtered ship queries by source.");
+        index.write(out, "cosmoport_filter_calls_total", index.calls);
+        database.write(out, "cosmoport_filter_calls_total", database.calls);
+        out.family("cosmoport_filter_rows_scanned_total", "counter",
+                "Rows examined by filtered queries (rows matching the filter for the database source).");
+        index.write(out, "cosmoport_filter_rows_scanned_total", index.scanned);
+        database.write(out, "cosmoport_filter_rows_scanned_total", database.scanned);
+        out.family("cosmoport_filter_rows_returned_total", "counter", "Rows returned by filtered queries.");
+        index.write(out, "cosmoport_filter_rows_returned_total", index.returned);
+        database.write(out, "cosmoport_filter_rows_returned_total", database.returned);
+        writeExecutors(out);
+        out.family("cosmoport_coalesced_queries_total", "counter",
+                "Read queries by outcome of request coalescing (computed, joined, reused).");
+        new TreeMap<>(coalesced).forEach((outcome, counter) ->
+                out.sample("cosmoport_coalesced_queries_total", "outcome", outcome, counter.sum()));
+        out.family("cosmoport_query_plans_total", "counter", "Planned read queries by chosen strategy.");
+        new TreeMap<>(plans).forEach((strategy, counter) ->
+                out.sample("cosmoport_query_plans_total", "strategy", strategy, counter.sum()));
+        out.family("cosmoport_aggregate_reconciliations_total", "counter",
+                "Checks of the running fleet aggregates against the table by outcome.");
+        new TreeMap<>(reconciliations).forEach((outcome, counter) ->
+                out.sample("cosmoport_aggregate_reconciliations_total", "outcome", outcome, counter.sum()));
+    }
+
+    private static void increment(ConcurrentMap<String, LongAdder> counters, String label) {
+        LongAdder counter = counters.get(label);
+        if (counter == null) counter = counters.computeIfAbsent(label, l -> new LongAdder());
+        counter.increment();
+    }
+
+    private void writeExecutors(PrometheusText out) {
+        Map<String, Executor> sorted = new TreeMap<>(executors);
+        out.family("cosmoport_executor_active_threads", "gauge", "Executor threads running a query.");
+        sorted.forEach((name, e) -> out.sample("cosmoport_executor_active_threads", "executor", name,
+                e.executor.getActiveCount()));
+        out.family("cosmoport_executor_max_threads", "gauge", "Executor thread limit.");
+        sorted.forEach((name, e) -> out.sample("cosmoport_executor_max_threads", "executor", name,
+                e.executor.getMaximumPoolSize()));
+        out.family("cosmoport_executor_queued_tasks", "gauge", "Queries waiting in the executor queue.");
+        sorted.forEach((name, e) -> out.sample("cosmoport_executor_queued_tasks", "executor", name,
+                e.executor.getQueue().size()));
+        out.family("cosmoport_executor_queue_capacity", "gauge", "Executor queue length limit.");
+        sorted.forEach((name, e) -> out.sample("cosmoport_executor_queue_capacity", "executor", name,
+                e.executor.getQueue().size() + e.executor.getQueue().remainingCapacity()));
+        out.family("cosmoport_executor_completed_tasks_total", "counter", "Queries finished by the executor.");
+        sorted.forEach((name, e) -> out.sample("cosmoport_executor_completed_tasks_total", "executor", name,
+                e.executor.getCompletedTaskCount()));
+        out.family("cosmoport_executor_rejected_tasks_total", "counter", "Queries rejected by a full executor.");
+        sorted.forEach((name, e) -> out.sample("cosmoport_executor_rejected_tasks_total", "executor", name,
+                e.rejected.sum()));
+        queueWait.write(out);
+    }
+
+    private static class Executor {
+        private final ThreadPoolExecutor executor;
+        private final LongAdder rejected = new LongAdder();
+
+        Executor(ThreadPoolExecutor executor) {
+            this.executor = executor;
+        }
+    }
+
+    private static class FilterRows {
+        private final String source;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder scanned = new LongAdder();
+        private final LongAdder returned = new LongAdder();
+
+        FilterRows(String source) {
+            this.source = source;
+        }
+
+        void write(PrometheusText out, String name, LongAdder value) {
+            out.sample(name, "source", source, value.sum());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.space.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    private volatile PoolStats poolStats;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquisitionNanos = new LongAdder();
+    private final LongAccumulator maxAcquisitionNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquisitions.increment();
+                acquisitionNanos.add(elapsedAcquiredNanos);
+                maxAcquisitionNanos.accumulate(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    public int getActiveConnections() {
+        return poolStats == null ? 0 : poolStats.getActiveConnections();
+    }
+
+    public int getIdleConnections() {
+        return poolStats == null ? 0 : poolStats.getIdleConnections();
+    }
+
+    public int getWaitingThreads() {
+        return poolStats == null ? 0 : poolStats.getPendingThreads();
+    }
+
+    public int getTotalConnections() {
+        return poolStats == null ? 0 : poolStats.getTotalConnections();
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public double getAverageAcquisitionMillis() {
+        long count = acquisitions.sum();
+        return count == 0 ? 0 : (double) acquisitionNanos.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxAcquisitionMillis() {
+        return (double) maxAcquisitionNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public long getAcquisitionTimeouts() {
+        return timeouts.sum();
+    }
+}
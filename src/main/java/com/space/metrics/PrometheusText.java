@@ -0,0 +1,76 @@
+package com.space.metrics;
+
+// Текстовый формат экспозиции Prometheus 0.0.4
+public class PrometheusText {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final StringBuilder out = new StringBuilder(8192);
+
+    public PrometheusText family(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    public PrometheusText sample(String name, double value) {
+        out.append(name).append(' ');
+        return value(value);
+    }
+
+    public PrometheusText sample(String name, String label, String labelValue, double value) {
+        out.append(name).append('{');
+        label(label, labelValue).append("} ");
+        return value(value);
+    }
+
+    // Квантили 0.5-0.999 и максимум (quantile="1"), затем _sum и _count; scale переводит значения в единицы метрики
+    public PrometheusText summary(String name, String label, String labelValue, Histogram.Snapshot snapshot,
+                                  double scale) {
+        for (double quantile : QUANTILES) summaryQuantile(name, label, labelValue, Double.toString(quantile),
+                snapshot.percentile(quantile) * scale);
+        summaryQuantile(name, label, labelValue, "1", snapshot.getMax() * scale);
+        if (label == null) {
+            sample(name + "_sum", snapshot.getSum() * scale);
+            sample(name + "_count", snapshot.getCount());
+        } else {
+            sample(name + "_sum", label, labelValue, snapshot.getSum() * scale);
+            sample(name + "_count", label, labelValue, snapshot.getCount());
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void summaryQuantile(String name, String label, String labelValue, String quantile, double value) {
+        out.append(name).append('{');
+        if (label != null) label(label, labelValue).append(',');
+        out.append("quantile=\"").append(quantile).append("\"} ");
+        value(value);
+    }
+
+    private StringBuilder label(String label, String value) {
+        out.append(label).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') out.append('\\').append(c);
+            else if (c == '\n') out.append("\\n");
+            else out.append(c);
+        }
+        return out.append('"');
+    }
+
+    private PrometheusText value(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) out.append((long) value);
+        else if (Double.isNaN(value)) out.append("NaN");
+        else if (Double.isInfinite(value)) out.append(value > 0 ? "+Inf" : "-Inf");
+        else out.append(value);
+        out.append('\n');
+        return this;
+    }
+}
@@ -0,0 +1,74 @@
+package com.space.metrics;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Время обработчика от первого preHandle до afterCompletion и число SQL за запрос. Счётчик SQL хранится
+// в атрибуте запроса: при асинхронной обработке его подхватывают исполнитель и повторная диспетчеризация
+public class RequestMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START = RequestMetricsInterceptor.class.getName() + ".start";
+    private static final String STATEMENTS = RequestMetricsInterceptor.class.getName() + ".statements";
+
+    private final Metrics metrics;
+    private final ConcurrentMap<Object, Histogram> histograms = new ConcurrentHashMap<>();
+
+    public RequestMetricsInterceptor(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(START) == null) request.setAttribute(START, System.nanoTime());
+        metrics.attachRequest(statements(request));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        metrics.detachRequest();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        metrics.detachRequest();
+        Object start = request.getAttribute(START);
+        if (start == null) return;
+        histogram(handler).record(System.nanoTime() - (Long) start);
+        metrics.endRequest(statements(request));
+    }
+
+    private static AtomicLong statements(HttpServletRequest request) {
+        AtomicLong statements = (AtomicLong) request.getAttribute(STATEMENTS);
+        if (statements == null) {
+            statements = new AtomicLong();
+            request.setAttribute(STATEMENTS, statements);
+        }
+        return statements;
+    }
+
+    // HandlerMethod создаётся на каждый запрос, поэтому ключ - сам метод
+    private Histogram histogram(Object handler) {
+        Object key = handler instanceof HandlerMethod ? ((HandlerMethod) handler).getMethod() : handler.getClass();
+        Histogram histogram = histograms.get(key);
+        if (histogram == null)
+            histogram = histograms.computeIfAbsent(key, k -> metrics.http().get(handlerName(handler)));
+        return histogram;
+    }
+
+    private static String handlerName(Object handler) {
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod method = (HandlerMethod) handler;
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return handler.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,22 @@
+package com.space.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Hibernate вызывает inspect перед подготовкой каждого SQL; текст запроса не меняется.
+// Запросы через Session.doWork (insertBatch) идут мимо Hibernate и не считаются
+public class SqlStatementCounter implements StatementInspector {
+
+    public static final String PROPERTY = "hibernate.session_factory.statement_inspector";
+
+    private final Metrics metrics;
+
+    public SqlStatementCounter(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        metrics.statementPrepared();
+        return sql;
+    }
+}
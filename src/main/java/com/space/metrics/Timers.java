@@ -0,0 +1,32 @@
+package com.space.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Семейство гистограмм времени в наносекундах с одной меткой (метод, обработчик, тип ответа)
+public class Timers {
+
+    private final String name;
+    private final String help;
+    private final String label;
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    Timers(String name, String help, String label) {
+        this.name = name;
+        this.help = help;
+        this.label = label;
+    }
+
+    public Histogram get(String value) {
+        Histogram histogram = histograms.get(value);
+        return histogram != null ? histogram : histograms.computeIfAbsent(value, key -> new Histogram());
+    }
+
+    void write(PrometheusText out) {
+        out.family(name, "summary", help);
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet())
+            out.summary(name, label, entry.getKey(), entry.getValue().snapshot(), 1e-9);
+    }
+}
@@ -0,0 +1,60 @@
+package com.space.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Замеряет время каждого метода бинов заданного типа в гистограмму с именем метода.
+// Прокси Spring Data (уже Advised) получает совет первым в цепочке, остальные бины оборачиваются в JDK-прокси
+public class TimingPostProcessor implements BeanPostProcessor {
+
+    private final Class<?> type;
+    private final Timers timers;
+
+    public TimingPostProcessor(Class<?> type, Timers timers) {
+        this.type = type;
+        this.timers = timers;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!type.isInstance(bean)) return bean;
+        TimingInterceptor interceptor = new TimingInterceptor(timers);
+        if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            ((Advised) bean).addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private static class TimingInterceptor implements MethodInterceptor {
+        private final Timers timers;
+        private final ConcurrentMap<Method, Histogram> histograms = new ConcurrentHashMap<>();
+
+        TimingInterceptor(Timers timers) {
+            this.timers = timers;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            if (method.getDeclaringClass() == Object.class) return invocation.proceed();
+            Histogram histogram = histograms.get(method);
+            if (histogram == null) histogram = histograms.computeIfAbsent(method, key -> timers.get(key.getName()));
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                histogram.record(System.nanoTime() - start);
+            }
+        }
+    }
+}
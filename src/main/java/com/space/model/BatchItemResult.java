@@ -0,0 +1,33 @@
+package com.space.model;
+
+public class BatchItemResult {
+
+    private int index;   //Позиция элемента в запросе
+    private Long id;     //ID корабля, если он известен
+    private int status;  //HTTP-статус, который вернул бы одиночный запрос
+
+    public BatchItemResult(int index, Long id, int status) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+    }
+
+    public BatchItemResult() {
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
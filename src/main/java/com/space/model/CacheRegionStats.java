@@ -0,0 +1,47 @@
+package com.space.model;
+
+public class CacheRegionStats {
+
+    private String region;   //Имя региона кэша
+    private long hits;       //Попадания
+    private long misses;     //Промахи
+    private long puts;       //Записи в кэш
+    private long evictions;  //Вытеснения по размеру и TTL
+    private long size;       //Текущее количество элементов
+
+    public CacheRegionStats(String region, long hits, long misses, long puts, long evictions, long size) {
+        this.region = region;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    public CacheRegionStats() {
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getSize() {
+        return size;
+    }
+}
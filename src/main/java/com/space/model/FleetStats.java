@@ -0,0 +1,68 @@
+package com.space.model;
+
+import java.util.Map;
+
+public class FleetStats {
+
+    private long count;                     //Количество кораблей, подходящих под фильтр
+    private Map<String, Long> byType;       //Количество по ShipType
+    private Map<String, Long> byPlanet;     //Количество по планетам
+    private long used;                      //Использованные
+    private long unused;                    //Новые
+    private ValueStats speed;               //null, если кораблей нет
+    private ValueStats crewSize;
+    private ValueStats rating;
+    private Map<Integer, Long> prodYears;   //Количество по году выпуска, только непустые годы
+
+    public FleetStats(long count, Map<String, Long> byType, Map<String, Long> byPlanet, long used, long unused,
+                      ValueStats speed, ValueStats crewSize, ValueStats rating, Map<Integer, Long> prodYears) {
+        this.count = count;
+        this.byType = byType;
+        this.byPlanet = byPlanet;
+        this.used = used;
+        this.unused = unused;
+        this.speed = speed;
+        this.crewSize = crewSize;
+        this.rating = rating;
+        this.prodYears = prodYears;
+    }
+
+    public FleetStats() {
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Map<String, Long> getByType() {
+        return byType;
+    }
+
+    public Map<String, Long> getByPlanet() {
+        return byPlanet;
+    }
+
+    public long getUsed() {
+        return used;
+    }
+
+    public long getUnused() {
+        return unused;
+    }
+
+    public ValueStats getSpeed() {
+        return speed;
+    }
+
+    public ValueStats getCrewSize() {
+        return crewSize;
+    }
+
+    public ValueStats getRating() {
+        return rating;
+    }
+
+    public Map<Integer, Long> getProdYears() {
+        return prodYears;
+    }
+}
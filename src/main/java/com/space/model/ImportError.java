@@ -0,0 +1,23 @@
+package com.space.model;
+
+public class ImportError {
+
+    private long record;    //Номер записи во входных данных, начиная с 1
+    private String message; //Причина отказа
+
+    public ImportError(long record, String message) {
+        this.record = record;
+        this.message = message;
+    }
+
+    public ImportError() {
+    }
+
+    public long getRecord() {
+        return record;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
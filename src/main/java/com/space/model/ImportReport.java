@@ -0,0 +1,41 @@
+package com.space.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReport {
+
+    private long accepted;                               //Записано кораблей
+    private long rejected;                               //Отклонено записей
+    private boolean done;                                //Импорт завершён
+    private List<ImportError> errors = new ArrayList<>(); //Первые ошибки, не больше заданного лимита
+
+    public void accept(int count) {
+        accepted += count;
+    }
+
+    public void reject(long record, String message, int maxErrors) {
+        rejected++;
+        if (errors.size() < maxErrors) errors.add(new ImportError(record, message));
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+
+    public List<ImportError> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,34 @@
+package com.space.model;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "job_checkpoint")
+public class JobCheckpoint {
+
+    @Id
+    private String name;  //Имя фоновой задачи
+    private Long   lastId;//Все корабли с id <= lastId уже обработаны
+
+    public JobCheckpoint(String name, Long lastId) {
+        this.name = name;
+        this.lastId = lastId;
+    }
+
+    public JobCheckpoint() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(Long lastId) {
+        this.lastId = lastId;
+    }
+}
@@ -0,0 +1,60 @@
+package com.space.model;
+
+public class RatingJobStatus {
+
+    private String state;          //IDLE, RUNNING, DONE или FAILED
+    private long processed;        //Просмотрено кораблей за этот запуск
+    private long updated;          //Из них рейтинг изменился
+    private long checkpoint;       //Все корабли с id <= checkpoint обработаны
+    private long maxId;            //Последний id на момент запуска
+    private long elapsedMillis;    //Время работы
+    private double shipsPerSecond; //Пропускная способность
+    private String error;          //Причина остановки для FAILED
+
+    public RatingJobStatus(String state, long processed, long updated, long checkpoint, long maxId,
+                           long elapsedMillis, String error) {
+        this.state = state;
+        this.processed = processed;
+        this.updated = updated;
+        this.checkpoint = checkpoint;
+        this.maxId = maxId;
+        this.elapsedMillis = elapsedMillis;
+        this.shipsPerSecond = elapsedMillis == 0 ? 0 : processed * 1000.0 / elapsedMillis;
+        this.error = error;
+    }
+
+    public RatingJobStatus() {
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getShipsPerSecond() {
+        return shipsPerSecond;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -1,10 +1,16 @@
 package com.space.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.Date;
 
 @Entity
 @Table(name = "ship")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "ship")
 public class Ship {
 
     @Id
@@ -18,6 +24,9 @@ public class Ship {
     private Double   speed;   //Максимальная скорость корабля. Диапазон значений 0,01..0,99 включительно
     private Integer  crewSize;//Количество членов экипажа. Диапазон значений 1..9999 включительно.
     private Double   rating;  //Рейтинг корабля
+    @Version
+    @JsonIgnore
+    private Long     version; //Версия для оптимистичной блокировки и ETag, увеличивается при каждом изменении
 
     public Ship(String name, String planet, String shipType, Date prodDate,
                 Boolean isUsed, Double speed, Integer crewSize, Double rating) {
@@ -105,4 +114,12 @@ public class Ship {
     public void setRating(Double rating) {
         this.rating = rating;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
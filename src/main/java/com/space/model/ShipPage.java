@@ -0,0 +1,25 @@
+package com.space.model;
+
+import java.util.List;
+
+public class ShipPage {
+
+    private List<Ship> ships; //Корабли запрошенной страницы
+    private long count;       //Количество кораблей, подходящих под фильтр
+
+    public ShipPage(List<Ship> ships, long count) {
+        this.ships = ships;
+        this.count = count;
+    }
+
+    public ShipPage() {
+    }
+
+    public List<Ship> getShips() {
+        return ships;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,47 @@
+package com.space.model;
+
+public class ValueStats {
+
+    private double min;
+    private double max;
+    private double avg;
+    private double p50;     //Перцентили по ближайшему рангу
+    private double p90;
+    private double p99;
+
+    public ValueStats(double min, double max, double avg, double p50, double p90, double p99) {
+        this.min = min;
+        this.max = max;
+        this.avg = avg;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    public ValueStats() {
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getAvg() {
+        return avg;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+}
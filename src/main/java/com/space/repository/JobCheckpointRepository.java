@@ -0,0 +1,7 @@
+package com.space.repository;
+
+import com.space.model.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
@@ -1,9 +1,41 @@
 package com.space.repository;
 
 import com.space.model.Ship;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface Repository extends JpaRepository<Ship, Long>, JpaSpecificationExecutor<Ship> {
-}
+import javax.persistence.QueryHint;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
+public interface Repository extends JpaRepository<Ship, Long>, JpaSpecificationExecutor<Ship>, ShipQueries {
+
+    @Override
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Ship> findAll(Specification<Ship> spec);
+
+    List<Ship> findByIdBetween(Long fromId, Long toId);
+
+    @Query("select max(s.id) from Ship s")
+    Long findMaxId();
 
+    // Распределения значений для планировщика запросов: пары (корзина, число кораблей)
+    @Query("select s.shipType, s.isUsed, count(s) from Ship s group by s.shipType, s.isUsed")
+    List<Object[]> countByTypeAndUsed();
+
+    @Query("select floor(s.speed * 100), count(s) from Ship s group by floor(s.speed * 100)")
+    List<Object[]> countBySpeedHundredth();
+
+    @Query("select floor(s.crewSize / 100.0), count(s) from Ship s group by floor(s.crewSize / 100.0)")
+    List<Object[]> countByCrewSizeHundred();
+
+    @Query("select floor(s.rating), count(s) from Ship s group by floor(s.rating)")
+    List<Object[]> countByRatingUnit();
+
+    @Query("select year(s.prodDate), count(s) from Ship s group by year(s.prodDate)")
+    List<Object[]> countByProdYear();
+}
@@ -0,0 +1,18 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ShipQueries {
+    List<Ship> findSlice(Specification<Ship> spec, Sort sort, int offset, int limit);
+    long countMatching(Specification<Ship> spec);
+    Stream<Ship> streamMatching(Specification<Ship> spec, Sort sort, int fetchSize);
+    Stream<Object[]> streamStatsColumns(Specification<Ship> spec, int fetchSize);
+    void insertBatch(List<Ship> ships);
+    int deleteBatch(Collection<Long> ids);
+}
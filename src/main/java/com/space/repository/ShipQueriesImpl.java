@@ -0,0 +1,154 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import org.hibernate.Cache;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class ShipQueriesImpl implements ShipQueries {
+
+    private static final String INSERT_SQL = "INSERT INTO ship(name, planet, shipType, prodDate, isUsed, speed, "
+            + "crewSize, rating, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Ship> findSlice(Specification<Ship> spec, Sort sort, int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Ship> query = cb.createQuery(Ship.class);
+        Root<Ship> root = where(query, spec);
+        query.select(root).orderBy(toOrders(sort, root, cb));
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
+                .getResultList();
+    }
+
+    @Override
+    public long countMatching(Specification<Ship> spec) {
+        CriteriaQuery<Long> query = entityManager.getCriteriaBuilder().createQuery(Long.class);
+        Root<Ship> root = where(query, spec);
+        query.select(entityManager.getCriteriaBuilder().count(root));
+        return entityManager.createQuery(query)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
+                .getSingleResult();
+    }
+
+    // Курсор только вперёд: строки читаются порциями по fetchSize и сразу отсоединяются от контекста
+    @Override
+    public Stream<Ship> streamMatching(Specification<Ship> spec, Sort sort, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Ship> query = cb.createQuery(Ship.class);
+        Root<Ship> root = where(query, spec);
+        query.select(root).orderBy(toOrders(sort, root, cb));
+        @SuppressWarnings("unchecked")
+        org.hibernate.query.Query<Ship> hibernateQuery = entityManager.createQuery(query)
+                .unwrap(org.hibernate.query.Query.class);
+        return hibernateQuery.setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .stream()
+                .peek(entityManager::detach);
+    }
+
+    // planet, shipType, isUsed, prodDate, speed, crewSize, rating подходящих кораблей без сборки сущностей
+    @Override
+    public Stream<Object[]> streamStatsColumns(Specification<Ship> spec, int fetchSize) {
+        CriteriaQuery<Object[]> query = entityManager.getCriteriaBuilder().createQuery(Object[].class);
+        Root<Ship> root = where(query, spec);
+        query.multiselect(root.get("planet"), root.get("shipType"), root.get("isUsed"), root.get("prodDate"), root.get("speed"),
+                root.get("crewSize"), root.get("rating"));
+        @SuppressWarnings("unchecked")
+        org.hibernate.query.Query<Object[]> hibernateQuery = entityManager.createQuery(query)
+                .unwrap(org.hibernate.query.Query.class);
+        return hibernateQuery.setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .stream();
+    }
+
+    // С IDENTITY Hibernate вставляет по одной строке, поэтому пакет пишется напрямую через JDBC
+    @Override
+    public void insertBatch(List<Ship> ships) {
+        if (ships.isEmpty()) return;
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Ship ship : ships) {
+                    statement.setString(1, ship.getName());
+                    statement.setString(2, ship.getPlanet());
+                    statement.setString(3, ship.getShipType());
+                    statement.setTimestamp(4, new Timestamp(ship.getProdDate().getTime()));
+                    statement.setBoolean(5, ship.getUsed());
+                    statement.setDouble(6, ship.getSpeed());
+                    statement.setInt(7, ship.getCrewSize());
+                    statement.setDouble(8, ship.getRating());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (Ship ship : ships) {
+                        if (!keys.next()) throw new SQLException("Driver returned fewer generated keys than inserted rows");
+                        ship.setId(keys.getLong(1));
+                        ship.setVersion(0L);
+                    }
+                }
+            }
+        });
+        evictQueryCacheAfterCompletion();
+    }
+
+    // Массовый DELETE через Hibernate сам сбрасывает регион "ship" и кэш запросов
+    @Override
+    public int deleteBatch(Collection<Long> ids) {
+        if (ids.isEmpty()) return 0;
+        return entityManager.createQuery("delete from Ship s where s.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    private void evictQueryCacheAfterCompletion() {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictQueryRegions();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.evictQueryRegions();
+            }
+        });
+    }
+
+    private Root<Ship> where(CriteriaQuery<?> query, Specification<Ship> spec) {
+        Root<Ship> root = query.from(Ship.class);
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, entityManager.getCriteriaBuilder());
+            if (predicate != null) query.where(predicate);
+        }
+        return root;
+    }
+}
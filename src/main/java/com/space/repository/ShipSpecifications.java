@@ -0,0 +1,92 @@
+package com.space.repository;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Date;
+
+public final class ShipSpecifications {
+
+    private static final char LIKE_ESCAPE = '!';
+
+    private ShipSpecifications() {
+    }
+
+    public static Specification<Ship> filter(String name, String planet, ShipType shipType, Long after, Long before,
+                                             Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                             Integer maxCrewSize, Double minRating, Double maxRating) {
+        return Specification.where(nameContains(name))
+                .and(planetContains(planet))
+                .and(shipTypeIs(shipType))
+                .and(prodDateBetween(after, before))
+                .and(isUsedIs(isUsed))
+                .and(inOpenRange("speed", minSpeed, maxSpeed))
+                .and(inOpenRange("crewSize", minCrewSize, maxCrewSize))
+                .and(inOpenRange("rating", minRating, maxRating));
+    }
+
+    public static Specification<Ship> nameContains(String name) {
+        return containsIgnoreCase("name", name);
+    }
+
+    public static Specification<Ship> planetContains(String planet) {
+        return containsIgnoreCase("planet", planet);
+    }
+
+    public static Specification<Ship> shipTypeIs(ShipType shipType) {
+        if (shipType == null) return null;
+        return (root, query, cb) -> cb.equal(root.get("shipType"), shipType.toString());
+    }
+
+    public static Specification<Ship> prodDateBetween(Long after, Long before) {
+        if (after == null && before == null) return null;
+        return (root, query, cb) -> {
+            if (after == null) return cb.lessThan(root.<Date>get("prodDate"), new Date(before));
+            if (before == null) return cb.greaterThan(root.<Date>get("prodDate"), new Date(after));
+            return cb.and(cb.greaterThan(root.<Date>get("prodDate"), new Date(after)),
+                          cb.lessThan(root.<Date>get("prodDate"), new Date(before)));
+        };
+    }
+
+    public static Specification<Ship> isUsedIs(Boolean isUsed) {
+        if (isUsed == null) return null;
+        return (root, query, cb) -> cb.equal(root.get("isUsed"), isUsed);
+    }
+
+    // Границы диапазона не включаются
+    public static <T extends Number & Comparable<T>> Specification<Ship> inOpenRange(String field, T min, T max) {
+        if (min == null && max == null) return null;
+        return (root, query, cb) -> {
+            if (min == null) return cb.lessThan(root.<T>get(field), max);
+            if (max == null) return cb.greaterThan(root.<T>get(field), min);
+            return cb.and(cb.greaterThan(root.<T>get(field), min), cb.lessThan(root.<T>get(field), max));
+        };
+    }
+
+    // Keyset-условие: строки строго после (value, id) в порядке сортировки по field, затем по id
+    public static <T extends Comparable<? super T>> Specification<Ship> seekAfter(String field, T value, long id) {
+        return (root, query, cb) -> cb.or(cb.greaterThan(root.<T>get(field), value),
+                cb.and(cb.equal(root.get(field), value), cb.greaterThan(root.<Long>get("id"), id)));
+    }
+
+    public static Specification<Ship> idAfter(long id) {
+        return (root, query, cb) -> cb.greaterThan(root.<Long>get("id"), id);
+    }
+
+    private static Specification<Ship> containsIgnoreCase(String field, String value) {
+        if (value == null) return null;
+        String pattern = "%" + escapeLike(value.toLowerCase()) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.<String>get(field)), pattern, LIKE_ESCAPE);
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') escaped.append(LIKE_ESCAPE);
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.space.service;
+
+import com.space.model.CacheRegionStats;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class CacheStatsService {
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ShipJsonCache shipJsonCache;
+
+    public List<CacheRegionStats> getRegionStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheRegionStats> result = new ArrayList<>();
+        result.add(shipJsonCache.stats());
+        if (!statistics.isStatisticsEnabled()) return result;
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) continue;
+            result.add(new CacheRegionStats(region, regionStatistics.getHitCount(), regionStatistics.getMissCount(),
+                    regionStatistics.getPutCount(), evictions(region), regionStatistics.getElementCountInMemory()));
+        }
+        return result;
+    }
+
+    private static long evictions(String region) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (ObjectName name : server.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null)) {
+                if (region.equals(name.getKeyProperty("Cache")))
+                    return (Long) server.getAttribute(name, "CacheEvictions");
+            }
+        } catch (Exception ignored) {
+        }
+        return 0;
+    }
+}
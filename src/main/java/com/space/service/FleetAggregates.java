@@ -0,0 +1,184 @@
+package com.space.service;
+
+import com.space.metrics.Metrics;
+import com.space.model.FleetStats;
+import com.space.model.Ship;
+import com.space.repository.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Агрегаты всего флота (aggregates.enabled): собираются при старте одним проходом по таблице и дальше
+// поддерживаются событиями ShipChangeEvent - корабли из previous вычитаются, из saved прибавляются.
+// GET /rest/ships/stats и /count без фильтров отвечают из них, не просматривая строки.
+// Раз в aggregates.reconcileMs агрегаты сверяются с таблицей и при расхождении, например после записи
+// в обход сервиса, заменяются посчитанными заново
+@Service
+public class FleetAggregates implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FleetAggregates.class);
+
+    @Autowired
+    private Repository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Metrics metrics;
+
+    @Value("${aggregates.enabled:false}")
+    private boolean enabled;
+
+    @Value("${aggregates.reconcileMs:300000}")
+    private long reconcileMs;
+
+    @Value("${export.fetchSize:1000}")
+    private int fetchSize;
+
+    private final Object lock = new Object();
+    private FleetStatsCollector totals;     //null, пока агрегаты не собраны
+    private FleetStats stats;               //Ответ по totals, null после изменения
+    // Записи между BEFORE_COMMIT и завершением транзакции: пока они есть, проход по таблице не с чем сравнить
+    private final Set<ShipChangeEvent> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long changes;                   //Растёт при каждом начале и конце записи
+    private ScheduledExecutorService reconciler;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // null, если агрегаты выключены или ещё не собраны
+    public Long count() {
+        synchronized (lock) {
+            return totals == null ? null : totals.count();
+        }
+    }
+
+    public FleetStats stats() {
+        synchronized (lock) {
+            if (totals == null) return null;
+            if (stats == null) stats = totals.result();
+            return stats;
+        }
+    }
+
+    // Сверка с таблицей. Засчитывается, только если за время прохода ни одна запись через сервис
+    // не начала и не закончила коммит; иначе пропускается до следующего раза и возвращает false
+    public boolean reconcile() {
+        long started;
+        synchronized (lock) {
+            if (!pending.isEmpty()) {
+                metrics.aggregatesReconciled("skipped");
+                return false;
+            }
+            started = changes;
+        }
+        FleetStatsCollector actual = scan();
+        synchronized (lock) {
+            if (changes != started) {
+                metrics.aggregatesReconciled("skipped");
+                return false;
+            }
+            if (totals == null) {
+                metrics.aggregatesReconciled("loaded");
+            } else if (totals.sameAs(actual)) {
+                metrics.aggregatesReconciled("matched");
+                return true;
+            } else {
+                LOG.warn("Fleet aggregates drifted from the table ({} ships counted, {} in the table), replaced",
+                        totals.count(), actual.count());
+                metrics.aggregatesReconciled("corrected");
+            }
+            totals = actual;
+            stats = null;
+            return true;
+        }
+    }
+
+    // Сервис публикует события внутри транзакции записи; без неё событие приходит уже после коммита, ждать нечего
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void beforeCommit(ShipChangeEvent event) {
+        if (!enabled || !TransactionSynchronizationManager.isActualTransactionActive()) return;
+        synchronized (lock) {
+            pending.add(event);
+            changes++;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void afterCommit(ShipChangeEvent event) {
+        if (!enabled) return;
+        synchronized (lock) {
+            changes++;
+            if (totals == null) return;
+            for (Ship ship : event.getPrevious()) totals.remove(ship);
+            for (Ship ship : event.getSaved()) totals.add(ship);
+            stats = null;
+        }
+    }
+
+    // После коммита, отката и коммита, закончившегося ошибкой с неизвестным исходом (STATUS_UNKNOWN)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION)
+    public void afterCompletion(ShipChangeEvent event) {
+        if (!enabled) return;
+        synchronized (lock) {
+            if (pending.remove(event)) changes++;
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) return;
+        reconcileQuietly();
+        if (reconcileMs <= 0) return;
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("fleet-aggregates-");
+        threads.setDaemon(true);
+        reconciler = Executors.newSingleThreadScheduledExecutor(threads);
+        reconciler.scheduleWithFixedDelay(this::reconcileQuietly, reconcileMs, reconcileMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (reconciler != null) reconciler.shutdownNow();
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            LOG.warn("Fleet aggregates were not reconciled with the table", e);
+        }
+    }
+
+    private FleetStatsCollector scan() {
+        FleetStatsCollector collector = new FleetStatsCollector();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.execute(status -> {
+            try (Stream<Object[]> rows = repository.streamStatsColumns(null, fetchSize)) {
+                rows.forEach(collector::add);
+            }
+            return null;
+        });
+        return collector;
+    }
+}
@@ -0,0 +1,382 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Колоночное хранилище флота. Каждый корабль занимает слот; фильтр вычисляется в битовую маску
+// слотов проходами по плотным массивам, порядок выдачи берётся из отсортированных перестановок слотов.
+// Не потокобезопасно, синхронизацию обеспечивает FleetIndex
+class FleetColumns {
+
+    private static final ShipOrder[] ORDERS = ShipOrder.values();
+    private static final ShipType[] TYPES = ShipType.values();
+
+    private int capacity;
+    private int slots;                      //Слоты [0, slots) когда-либо занимались
+    private long[] ids;
+    private String[] names;
+    private String[] namesLower;
+    private String[] planets;
+    private String[] planetsLower;
+    private String[] shipTypes;
+    private byte[] typeCodes;               //ShipType.ordinal(), -1 для неизвестного типа
+    private long[] prodDates;
+    private double[] speeds;
+    private int[] crewSizes;
+    private double[] ratings;
+    private long[] versions;
+    private long[] used;                    //Биты isUsed
+    private long[] usedKnown;               //Биты isUsed IS NOT NULL
+    private long[] live;                    //Биты занятых слотов
+    private int[] free = new int[16];       //Освободившиеся слоты
+    private int freeCount;
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final int[][] sorted = new int[ORDERS.length][];  //Слоты по (поле порядка, id)
+    private final TrigramIndex nameTrigrams = new TrigramIndex();
+    private final TrigramIndex planetTrigrams = new TrigramIndex();
+    private int size;
+
+    FleetColumns(int initialCapacity) {
+        allocate(Math.max(initialCapacity, 64));
+        for (int i = 0; i < ORDERS.length; i++) sorted[i] = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void upsert(Ship ship) {
+        Integer slot = slotById.get(ship.getId());
+        if (slot != null) {
+            for (ShipOrder order : ORDERS) removeSorted(order, slot);
+        } else {
+            slot = takeSlot();
+            slotById.put(ship.getId(), slot);
+            live[slot >>> 6] |= 1L << slot;
+            size++;
+        }
+        write(slot, ship);
+        for (ShipOrder order : ORDERS) insertSorted(order, slot);
+    }
+
+    // Быстрая загрузка: корабль добавляется без поддержки перестановок, после всех append нужен sortAll
+    void append(Ship ship) {
+        int slot = takeSlot();
+        slotById.put(ship.getId(), slot);
+        live[slot >>> 6] |= 1L << slot;
+        size++;
+        write(slot, ship);
+    }
+
+    void sortAll() {
+        Integer[] order = new Integer[size];
+        int next = 0;
+        for (int slot = 0; slot < slots; slot++) if ((live[slot >>> 6] & (1L << slot)) != 0) order[next++] = slot;
+        for (ShipOrder shipOrder : ORDERS) {
+            Arrays.sort(order, (a, b) -> compare(shipOrder, a, b));
+            int[] permutation = sorted[shipOrder.ordinal()];
+            for (int i = 0; i < size; i++) permutation[i] = order[i];
+        }
+    }
+
+    void remove(long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) return;
+        for (ShipOrder order : ORDERS) removeSorted(order, slot);
+        live[slot >>> 6] &= ~(1L << slot);
+        nameTrigrams.replace(slot, namesLower[slot], null);
+        planetTrigrams.replace(slot, planetsLower[slot], null);
+        names[slot] = namesLower[slot] = planets[slot] = planetsLower[slot] = shipTypes[slot] = null;
+        if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = slot;
+        size--;
+    }
+
+    // Маска слотов, проходящих фильтр; условия накладываются по очереди только на ещё живые слова.
+    // Подстроки идут первыми: по триграммам они сразу сужают маску до кандидатов
+    long[] match(ShipFilter filter) {
+        long[] mask = Arrays.copyOf(live, words(slots));
+        if (filter.getName() != null) andContains(mask, namesLower, nameTrigrams, filter.getName().toLowerCase());
+        if (filter.getPlanet() != null)
+            andContains(mask, planetsLower, planetTrigrams, filter.getPlanet().toLowerCase());
+        if (filter.getShipType() != null) andTypeCode(mask, (byte) filter.getShipType().ordinal());
+        if (filter.getUsed() != null) {
+            // NULL не подходит ни под true, ни под false, как is_used = ? в SQL
+            andBits(mask, usedKnown, true);
+            andBits(mask, used, filter.getUsed());
+        }
+        if (filter.getAfter() != null || filter.getBefore() != null)
+            andRange(mask, prodDates, filter.getAfter() == null ? Long.MIN_VALUE : filter.getAfter(),
+                    filter.getBefore() == null ? Long.MAX_VALUE : filter.getBefore());
+        if (filter.getMinSpeed() != null || filter.getMaxSpeed() != null)
+            andRange(mask, speeds, lower(filter.getMinSpeed()), upper(filter.getMaxSpeed()));
+        if (filter.getMinCrewSize() != null || filter.getMaxCrewSize() != null)
+            andRange(mask, crewSizes, filter.getMinCrewSize() == null ? Long.MIN_VALUE : filter.getMinCrewSize(),
+                    filter.getMaxCrewSize() == null ? Long.MAX_VALUE : filter.getMaxCrewSize());
+        if (filter.getMinRating() != null || filter.getMaxRating() != null)
+            andRange(mask, ratings, lower(filter.getMinRating()), upper(filter.getMaxRating()));
+        return mask;
+    }
+
+    static long count(long[] mask) {
+        long count = 0;
+        for (long word : mask) count += Long.bitCount(word);
+        return count;
+    }
+
+    List<Ship> page(long[] mask, ShipOrder order, long offset, int limit) {
+        List<Ship> page = new ArrayList<>(Math.min(limit, 1024));
+        int[] permutation = sorted[order.ordinal()];
+        long skipped = 0;
+        for (int i = 0; i < size && page.size() < limit; i++) {
+            int slot = permutation[i];
+            if ((mask[slot >>> 6] & (1L << slot)) == 0) continue;
+            if (skipped++ < offset) continue;
+            page.add(read(slot));
+        }
+        return page;
+    }
+
+    // Один проход по слотам маски
+    void collect(long[] mask, FleetStatsCollector collector) {
+        for (int w = 0; w < mask.length; w++) {
+            long word = mask[w];
+            while (word != 0) {
+                int slot = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                collector.add(planets[slot], shipTypes[slot], usedOf(slot), prodDates[slot], speeds[slot],
+                        crewSizes[slot], ratings[slot]);
+            }
+        }
+    }
+
+    private Ship read(int slot) {
+        Ship ship = new Ship(names[slot], planets[slot], shipTypes[slot], new Date(prodDates[slot]),
+                usedOf(slot), speeds[slot], crewSizes[slot], ratings[slot]);
+        ship.setId(ids[slot]);
+        ship.setVersion(versions[slot]);
+        return ship;
+    }
+
+    private void write(int slot, Ship ship) {
+        ids[slot] = ship.getId();
+        String nameLower = ship.getName() == null ? null : ship.getName().toLowerCase();
+        String planetLower = ship.getPlanet() == null ? null : ship.getPlanet().toLowerCase();
+        nameTrigrams.replace(slot, namesLower[slot], nameLower);
+        planetTrigrams.replace(slot, planetsLower[slot], planetLower);
+        names[slot] = ship.getName();
+        namesLower[slot] = nameLower;
+        planets[slot] = ship.getPlanet();
+        planetsLower[slot] = planetLower;
+        shipTypes[slot] = ship.getShipType();
+        typeCodes[slot] = typeCode(ship.getShipType());
+        // В базе prodDate хранится как DATE, поэтому время суток отбрасывается так же, как при записи
+        prodDates[slot] = ship.getProdDate() == null ? Long.MIN_VALUE : ProdDates.startOfDay(ship.getProdDate().getTime());
+        speeds[slot] = ship.getSpeed() == null ? Double.NaN : ship.getSpeed();
+        crewSizes[slot] = ship.getCrewSize() == null ? Integer.MIN_VALUE : ship.getCrewSize();
+        ratings[slot] = ship.getRating() == null ? Double.NaN : ship.getRating();
+        versions[slot] = ship.getVersion() == null ? 0 : ship.getVersion();
+        if (Boolean.TRUE.equals(ship.getUsed())) used[slot >>> 6] |= 1L << slot;
+        else used[slot >>> 6] &= ~(1L << slot);
+        if (ship.getUsed() != null) usedKnown[slot >>> 6] |= 1L << slot;
+        else usedKnown[slot >>> 6] &= ~(1L << slot);
+    }
+
+    private Boolean usedOf(int slot) {
+        if ((usedKnown[slot >>> 6] & (1L << slot)) == 0) return null;
+        return (used[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private int takeSlot() {
+        if (freeCount > 0) return free[--freeCount];
+        if (slots == capacity) grow();
+        return slots++;
+    }
+
+    private void grow() {
+        int newCapacity = capacity + (capacity >> 1);
+        allocate(newCapacity);
+        for (int i = 0; i < ORDERS.length; i++) sorted[i] = Arrays.copyOf(sorted[i], newCapacity);
+    }
+
+    private void allocate(int newCapacity) {
+        ids = ids == null ? new long[newCapacity] : Arrays.copyOf(ids, newCapacity);
+        names = names == null ? new String[newCapacity] : Arrays.copyOf(names, newCapacity);
+        namesLower = namesLower == null ? new String[newCapacity] : Arrays.copyOf(namesLower, newCapacity);
+        planets = planets == null ? new String[newCapacity] : Arrays.copyOf(planets, newCapacity);
+        planetsLower = planetsLower == null ? new String[newCapacity] : Arrays.copyOf(planetsLower, newCapacity);
+        shipTypes = shipTypes == null ? new String[newCapacity] : Arrays.copyOf(shipTypes, newCapacity);
+        typeCodes = typeCodes == null ? new byte[newCapacity] : Arrays.copyOf(typeCodes, newCapacity);
+        prodDates = prodDates == null ? new long[newCapacity] : Arrays.copyOf(prodDates, newCapacity);
+        speeds = speeds == null ? new double[newCapacity] : Arrays.copyOf(speeds, newCapacity);
+        crewSizes = crewSizes == null ? new int[newCapacity] : Arrays.copyOf(crewSizes, newCapacity);
+        ratings = ratings == null ? new double[newCapacity] : Arrays.copyOf(ratings, newCapacity);
+        versions = versions == null ? new long[newCapacity] : Arrays.copyOf(versions, newCapacity);
+        used = used == null ? new long[words(newCapacity)] : Arrays.copyOf(used, words(newCapacity));
+        usedKnown = usedKnown == null ? new long[words(newCapacity)] : Arrays.copyOf(usedKnown, words(newCapacity));
+        live = live == null ? new long[words(newCapacity)] : Arrays.copyOf(live, words(newCapacity));
+        capacity = newCapacity;
+    }
+
+    // Вызывается, когда слот уже учтён в size, но ещё не вставлен в перестановки
+    private void insertSorted(ShipOrder order, int slot) {
+        int[] permutation = sorted[order.ordinal()];
+        int length = size - 1;
+        int position = -search(order, slot, length) - 1;
+        System.arraycopy(permutation, position, permutation, position + 1, length - position);
+        permutation[position] = slot;
+    }
+
+    // Вызывается до изменения колонок слота, поэтому находит его по старым значениям
+    private void removeSorted(ShipOrder order, int slot) {
+        int[] permutation = sorted[order.ordinal()];
+        int position = search(order, slot, size);
+        System.arraycopy(permutation, position + 1, permutation, position, size - 1 - position);
+    }
+
+    private int search(ShipOrder order, int slot, int length) {
+        int[] permutation = sorted[order.ordinal()];
+        int low = 0;
+        int high = length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = compare(order, permutation[middle], slot);
+            if (compared < 0) low = middle + 1;
+            else if (compared > 0) high = middle - 1;
+            else return middle;
+        }
+        return -(low + 1);
+    }
+
+    private int compare(ShipOrder order, int a, int b) {
+        int compared;
+        switch (order) {
+            case SPEED:
+                compared = Double.compare(speeds[a], speeds[b]);
+                break;
+            case DATE:
+                compared = Long.compare(prodDates[a], prodDates[b]);
+                break;
+            case RATING:
+                compared = Double.compare(ratings[a], ratings[b]);
+                break;
+            default:
+                compared = 0;
+        }
+        return compared != 0 ? compared : Long.compare(ids[a], ids[b]);
+    }
+
+    private void andTypeCode(long[] mask, byte code) {
+        for (int w = 0; w < mask.length; w++) {
+            long word = mask[w];
+            if (word == 0) continue;
+            int base = w << 6;
+            int end = Math.min(64, slots - base);
+            long bits = 0;
+            for (int b = 0; b < end; b++) if (typeCodes[base + b] == code) bits |= 1L << b;
+            mask[w] = word & bits;
+        }
+    }
+
+    private static void andBits(long[] mask, long[] bits, boolean set) {
+        for (int w = 0; w < mask.length; w++) mask[w] &= set ? bits[w] : ~bits[w];
+    }
+
+    // Границы не включаются, как и в ShipSpecifications.inOpenRange
+    private void andRange(long[] mask, double[] column, double min, double max) {
+        for (int w = 0; w < mask.length; w++) {
+            long word = mask[w];
+            if (word == 0) continue;
+            int base = w << 6;
+            int end = Math.min(64, slots - base);
+            long bits = 0;
+            for (int b = 0; b < end; b++) {
+                double value = column[base + b];
+                if (value > min && value < max) bits |= 1L << b;
+            }
+            mask[w] = word & bits;
+        }
+    }
+
+    private void andRange(long[] mask, long[] column, long min, long max) {
+        for (int w = 0; w < mask.length; w++) {
+            long word = mask[w];
+            if (word == 0) continue;
+            int base = w << 6;
+            int end = Math.min(64, slots - base);
+            long bits = 0;
+            for (int b = 0; b < end; b++) {
+                long value = column[base + b];
+                if (value > min && value < max) bits |= 1L << b;
+            }
+            mask[w] = word & bits;
+        }
+    }
+
+    private void andRange(long[] mask, int[] column, long min, long max) {
+        for (int w = 0; w < mask.length; w++) {
+            long word = mask[w];
+            if (word == 0) continue;
+            int base = w << 6;
+            int end = Math.min(64, slots - base);
+            long bits = 0;
+            for (int b = 0; b < end; b++) {
+                int value = column[base + b];
+                if (value != Integer.MIN_VALUE && value > min && value < max) bits |= 1L << b;
+            }
+            mask[w] = word & bits;
+        }
+    }
+
+    private static void andContains(long[] mask, String[] column, TrigramIndex trigrams, String needle) {
+        int[] candidates = trigrams.candidates(needle);
+        if (candidates == null) {
+            andContains(mask, column, needle);
+            return;
+        }
+        long[] hits = new long[mask.length];
+        for (int slot : candidates) {
+            long bit = 1L << slot;
+            if ((mask[slot >>> 6] & bit) != 0 && column[slot].contains(needle)) hits[slot >>> 6] |= bit;
+        }
+        System.arraycopy(hits, 0, mask, 0, mask.length);
+    }
+
+    // Подстрока короче триграммы: проверяются все слоты маски
+    private static void andContains(long[] mask, String[] column, String needle) {
+        for (int w = 0; w < mask.length; w++) {
+            long word = mask[w];
+            while (word != 0) {
+                int b = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                String value = column[(w << 6) + b];
+                if (value == null || !value.contains(needle)) mask[w] &= ~(1L << b);
+            }
+        }
+    }
+
+    private static double lower(Double min) {
+        return min == null ? Double.NEGATIVE_INFINITY : min;
+    }
+
+    private static double upper(Double max) {
+        return max == null ? Double.POSITIVE_INFINITY : max;
+    }
+
+    private static byte typeCode(String shipType) {
+        for (ShipType type : TYPES) if (type.name().equals(shipType)) return (byte) type.ordinal();
+        return -1;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+}
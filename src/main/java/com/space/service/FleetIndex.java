@@ -0,0 +1,142 @@
+package com.space.service;
+
+import com.space.controller.ShipOrder;
+import com.space.model.Ship;
+import com.space.repository.Repository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Необязательная копия флота в памяти для фильтрованных запросов без обращения к базе (index.enabled).
+// Загружается при первом запросе и дальше поддерживается событиями ShipChangeEvent
+@Service
+public class FleetIndex {
+
+    @Autowired
+    private Repository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${export.fetchSize:1000}")
+    private int fetchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile FleetColumns columns;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isLoaded() {
+        return columns != null;
+    }
+
+    // Живые строки, которые просматривает каждый фильтр; 0 до загрузки
+    public int size() {
+        FleetColumns loaded = columns;
+        return loaded == null ? 0 : loaded.size();
+    }
+
+    public long count(ShipFilter filter) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return FleetColumns.count(columns.match(filter));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Ship> page(ShipFilter filter, ShipOrder order, long offset, int limit) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return columns.page(columns.match(filter), order, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long page(ShipFilter filter, ShipOrder order, long offset, int limit, List<Ship> result) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            long[] mask = columns.match(filter);
+            result.addAll(columns.page(mask, order, offset, limit));
+            return FleetColumns.count(mask);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void collect(ShipFilter filter, FleetStatsCollector collector) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            columns.collect(columns.match(filter), collector);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Полная перезагрузка из базы, например после записи в обход сервиса
+    public void reload() {
+        lock.writeLock().lock();
+        try {
+            columns = load();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Пока индекс не загружен, события пропускаются: загрузка после коммита и так увидит изменения.
+    // Идущая загрузка держит блокировку, поэтому событие дождётся её и применится поверх
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShipChange(ShipChangeEvent event) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            if (columns == null) return;
+            for (Ship ship : event.getSaved()) columns.upsert(ship);
+            for (Long id : event.getDeleted()) columns.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (columns != null) return;
+        lock.writeLock().lock();
+        try {
+            if (columns == null) columns = load();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private FleetColumns load() {
+        FleetColumns loaded = new FleetColumns((int) repository.count());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.execute(status -> {
+            try (Stream<Ship> ships = repository.streamMatching(null, Sort.by("id"), fetchSize)) {
+                ships.forEach(loaded::append);
+            }
+            return null;
+        });
+        loaded.sortAll();
+        return loaded;
+    }
+}
@@ -0,0 +1,169 @@
+package com.space.service;
+
+import com.space.model.ShipType;
+
+import java.util.List;
+
+// Снимок распределения флота для оценки селективности фильтров: число кораблей по типу и isUsed
+// и гистограммы с равными корзинами по скорости, экипажу, рейтингу и году выпуска.
+// Внутри корзины значения считаются равномерными, условия фильтра - независимыми
+final class FleetStatistics {
+
+    // Доля кораблей, подходящих под подстроку имени или планеты: распределение строк не собирается
+    static final double CONTAINS_SELECTIVITY = 0.1;
+
+    // Средняя длина григорианского года; на оценку по годам часовой пояс и високосные дни почти не влияют
+    private static final double MILLIS_PER_YEAR = 365.2425 * 24 * 60 * 60 * 1000;
+    private static final ShipType[] TYPES = ShipType.values();
+
+    private final long total;
+    private final long[][] typeUsed = new long[TYPES.length + 1][3];  //[тип или неизвестный][false, true, null]
+    private final Buckets speed;
+    private final Buckets crewSize;
+    private final Buckets rating;
+    private final Buckets prodYear;
+
+    FleetStatistics(List<Object[]> typeUsed, List<Object[]> speed, List<Object[]> crewSize,
+                    List<Object[]> rating, List<Object[]> prodYear) {
+        long total = 0;
+        for (Object[] row : typeUsed) {
+            long count = ((Number) row[2]).longValue();
+            this.typeUsed[typeIndex((String) row[0])][usedIndex((Boolean) row[1])] += count;
+            total += count;
+        }
+        this.total = total;
+        this.speed = new Buckets(speed, 0.01);
+        this.crewSize = new Buckets(crewSize, 100);
+        this.rating = new Buckets(rating, 1);
+        this.prodYear = new Buckets(prodYear, 1);
+    }
+
+    long total() {
+        return total;
+    }
+
+    // Ожидаемая доля кораблей, проходящих фильтр
+    double selectivity(ShipFilter filter) {
+        if (total == 0) return 0;
+        double selectivity = typeUsed(filter);
+        if (filter.getName() != null) selectivity *= CONTAINS_SELECTIVITY;
+        if (filter.getPlanet() != null) selectivity *= CONTAINS_SELECTIVITY;
+        if (hasProdDate(filter)) selectivity *= prodDate(filter);
+        if (hasSpeed(filter)) selectivity *= speed(filter);
+        if (hasCrewSize(filter)) selectivity *= crewSize(filter);
+        if (hasRating(filter)) selectivity *= rating(filter);
+        return selectivity;
+    }
+
+    // Доля строк, которую база просмотрит по самому избирательному индексируемому условию; 1 - полный проход
+    double indexedSelectivity(ShipFilter filter) {
+        if (total == 0) return 0;
+        double best = 1;
+        if (filter.getShipType() != null || filter.getUsed() != null) best = Math.min(best, typeUsed(filter));
+        if (hasProdDate(filter)) best = Math.min(best, prodDate(filter));
+        if (hasSpeed(filter)) best = Math.min(best, speed(filter));
+        if (hasCrewSize(filter)) best = Math.min(best, crewSize(filter));
+        if (hasRating(filter)) best = Math.min(best, rating(filter));
+        return best;
+    }
+
+    private double typeUsed(ShipFilter filter) {
+        long matching = 0;
+        for (int type = 0; type < typeUsed.length; type++) {
+            if (filter.getShipType() != null && type != filter.getShipType().ordinal()) continue;
+            for (int used = 0; used < 3; used++)
+                if (filter.getUsed() == null || used == usedIndex(filter.getUsed())) matching += typeUsed[type][used];
+        }
+        return (double) matching / total;
+    }
+
+    private double prodDate(ShipFilter filter) {
+        return prodYear.count(filter.getAfter() == null ? Double.NEGATIVE_INFINITY : year(filter.getAfter()),
+                filter.getBefore() == null ? Double.POSITIVE_INFINITY : year(filter.getBefore())) / total;
+    }
+
+    private double speed(ShipFilter filter) {
+        return speed.count(lower(filter.getMinSpeed()), upper(filter.getMaxSpeed())) / total;
+    }
+
+    private double crewSize(ShipFilter filter) {
+        return crewSize.count(filter.getMinCrewSize() == null ? Double.NEGATIVE_INFINITY : filter.getMinCrewSize(),
+                filter.getMaxCrewSize() == null ? Double.POSITIVE_INFINITY : filter.getMaxCrewSize()) / total;
+    }
+
+    private double rating(ShipFilter filter) {
+        return rating.count(lower(filter.getMinRating()), upper(filter.getMaxRating())) / total;
+    }
+
+    private static boolean hasProdDate(ShipFilter filter) {
+        return filter.getAfter() != null || filter.getBefore() != null;
+    }
+
+    private static boolean hasSpeed(ShipFilter filter) {
+        return filter.getMinSpeed() != null || filter.getMaxSpeed() != null;
+    }
+
+    private static boolean hasCrewSize(ShipFilter filter) {
+        return filter.getMinCrewSize() != null || filter.getMaxCrewSize() != null;
+    }
+
+    private static boolean hasRating(ShipFilter filter) {
+        return filter.getMinRating() != null || filter.getMaxRating() != null;
+    }
+
+    private static double year(long millis) {
+        return 1970 + millis / MILLIS_PER_YEAR;
+    }
+
+    private static double lower(Double min) {
+        return min == null ? Double.NEGATIVE_INFINITY : min;
+    }
+
+    private static double upper(Double max) {
+        return max == null ? Double.POSITIVE_INFINITY : max;
+    }
+
+    private static int typeIndex(String shipType) {
+        for (ShipType type : TYPES) if (type.name().equals(shipType)) return type.ordinal();
+        return TYPES.length;
+    }
+
+    private static int usedIndex(Boolean used) {
+        return used == null ? 2 : used ? 1 : 0;
+    }
+
+    // Корзина k покрывает [k * width, (k + 1) * width); строки с null в колонке не попадают ни в одну
+    private static final class Buckets {
+
+        private final double width;
+        private final long firstKey;
+        private final long[] counts;
+
+        Buckets(List<Object[]> rows, double width) {
+            this.width = width;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (Object[] row : rows) {
+                if (row[0] == null) continue;
+                long key = ((Number) row[0]).longValue();
+                min = Math.min(min, key);
+                max = Math.max(max, key);
+            }
+            firstKey = min > max ? 0 : min;
+            counts = new long[min > max ? 0 : (int) (max - min + 1)];
+            for (Object[] row : rows)
+                if (row[0] != null) counts[(int) (((Number) row[0]).longValue() - firstKey)] += ((Number) row[1]).longValue();
+        }
+
+        // Ожидаемое число значений в (low, high)
+        double count(double low, double high) {
+            double count = 0;
+            for (int i = 0; i < counts.length; i++) {
+                double from = (firstKey + i) * width;
+                double overlap = Math.min(from + width, high) - Math.max(from, low);
+                if (overlap > 0) count += counts[i] * Math.min(1, overlap / width);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.space.service;
+
+import com.space.model.FleetStats;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.model.ValueStats;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Агрегаты GET /rest/ships/stats за один проход по кораблям. Значения раскладываются по корзинам фиксированной
+// точности (сотые для скорости и рейтинга, единицы для экипажа), из корзин берутся минимум, максимум и перцентили;
+// среднее считается по сумме в тех же единицах. Значения вне допустимых диапазонов прижимаются к краю.
+// Все счётчики целые, поэтому корабль можно и вычесть (FleetAggregates), а два сборщика - сравнить точно.
+// Пропуски в колонках как в FleetColumns: NaN, Integer.MIN_VALUE, Long.MIN_VALUE
+final class FleetStatsCollector {
+
+    private static final ShipType[] TYPES = ShipType.values();
+
+    private long count;
+    private final long[] byType = new long[TYPES.length];
+    private final Map<String, long[]> byPlanet = new HashMap<>();
+    private long used;
+    private long unused;
+    private final Values speed = new Values(100, 100);
+    private final Values crewSize = new Values(1, 9999);
+    private final Values rating = new Values(100, 8000);
+    private final long[] years = new long[ProdDates.MAX_YEAR - ProdDates.MIN_YEAR + 1];
+
+    void add(String planet, String shipType, Boolean isUsed, long prodDate, double speed, int crewSize,
+             double rating) {
+        apply(planet, shipType, isUsed, prodDate, speed, crewSize, rating, 1);
+    }
+
+    void add(Ship ship) {
+        apply(ship, 1);
+    }
+
+    void remove(Ship ship) {
+        apply(ship, -1);
+    }
+
+    // Строка Repository.streamStatsColumns
+    void add(Object[] row) {
+        add((String) row[0], (String) row[1], (Boolean) row[2],
+                row[3] == null ? Long.MIN_VALUE : ((Date) row[3]).getTime(),
+                row[4] == null ? Double.NaN : (Double) row[4],
+                row[5] == null ? Integer.MIN_VALUE : (Integer) row[5],
+                row[6] == null ? Double.NaN : (Double) row[6]);
+    }
+
+    long count() {
+        return count;
+    }
+
+    FleetStats result() {
+        Map<String, Long> types = new LinkedHashMap<>();
+        for (ShipType type : TYPES) types.put(type.name(), byType[type.ordinal()]);
+        Map<String, Long> planets = new TreeMap<>();
+        byPlanet.forEach((planet, ships) -> planets.put(planet, ships[0]));
+        Map<Integer, Long> prodYears = new TreeMap<>();
+        for (int i = 0; i < years.length; i++) if (years[i] != 0) prodYears.put(ProdDates.MIN_YEAR + i, years[i]);
+        return new FleetStats(count, types, planets, used, unused, speed.result(), crewSize.result(),
+                rating.result(), prodYears);
+    }
+
+    boolean sameAs(FleetStatsCollector other) {
+        if (count != other.count || used != other.used || unused != other.unused) return false;
+        if (!Arrays.equals(byType, other.byType) || !Arrays.equals(years, other.years)) return false;
+        if (byPlanet.size() != other.byPlanet.size()) return false;
+        for (Map.Entry<String, long[]> planet : byPlanet.entrySet()) {
+            long[] ships = other.byPlanet.get(planet.getKey());
+            if (ships == null || ships[0] != planet.getValue()[0]) return false;
+        }
+        return speed.sameAs(other.speed) && crewSize.sameAs(other.crewSize) && rating.sameAs(other.rating);
+    }
+
+    private void apply(Ship ship, int sign) {
+        apply(ship.getPlanet(), ship.getShipType(), ship.getUsed(),
+                ship.getProdDate() == null ? Long.MIN_VALUE : ship.getProdDate().getTime(),
+                ship.getSpeed() == null ? Double.NaN : ship.getSpeed(),
+                ship.getCrewSize() == null ? Integer.MIN_VALUE : ship.getCrewSize(),
+                ship.getRating() == null ? Double.NaN : ship.getRating(), sign);
+    }
+
+    private void apply(String planet, String shipType, Boolean isUsed, long prodDate, double speed, int crewSize,
+                       double rating, int sign) {
+        count += sign;
+        for (ShipType type : TYPES) {
+            if (type.name().equals(shipType)) {
+                byType[type.ordinal()] += sign;
+                break;
+            }
+        }
+        if (planet != null) {
+            long[] ships = byPlanet.computeIfAbsent(planet, p -> new long[1]);
+            ships[0] += sign;
+            if (ships[0] == 0) byPlanet.remove(planet);
+        }
+        if (isUsed != null) {
+            if (isUsed) used += sign;
+            else unused += sign;
+        }
+        if (prodDate != Long.MIN_VALUE) {
+            int year = Math.max(ProdDates.MIN_YEAR, Math.min(ProdDates.MAX_YEAR, ProdDates.yearOf(prodDate)));
+            years[year - ProdDates.MIN_YEAR] += sign;
+        }
+        this.speed.add(speed, sign);
+        if (crewSize != Integer.MIN_VALUE) this.crewSize.add(crewSize, sign);
+        this.rating.add(rating, sign);
+    }
+
+    private static final class Values {
+
+        private final double scale;
+        private final long[] buckets;
+        private long count;
+        private long sum;   //В единицах scale
+
+        Values(double scale, int maxBucket) {
+            this.scale = scale;
+            this.buckets = new long[maxBucket + 1];
+        }
+
+        void add(double value, int sign) {
+            if (Double.isNaN(value)) return;
+            long scaled = Math.round(value * scale);
+            buckets[(int) Math.max(0, Math.min(buckets.length - 1, scaled))] += sign;
+            count += sign;
+            sum += sign * scaled;
+        }
+
+        boolean sameAs(Values other) {
+            return count == other.count && sum == other.sum && Arrays.equals(buckets, other.buckets);
+        }
+
+        ValueStats result() {
+            if (count == 0) return null;
+            int min = 0;
+            while (buckets[min] == 0) min++;
+            int max = buckets.length - 1;
+            while (buckets[max] == 0) max--;
+            // Среднее до десятитысячных, чтобы не выводить хвост округления double
+            double avg = Math.round(sum * 10000.0 / scale / count) / 10000.0;
+            return new ValueStats(min / scale, max / scale, avg, percentile(0.5), percentile(0.9), percentile(0.99));
+        }
+
+        private double percentile(double q) {
+            long rank = Math.max(1, (long) Math.ceil(q * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) return i / scale;
+            }
+            return (buckets.length - 1) / scale;
+        }
+    }
+}
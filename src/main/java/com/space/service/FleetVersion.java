@@ -0,0 +1,35 @@
+package com.space.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Счётчик изменений флота для ETag списков и количества. Увеличивается и до, и после коммита:
+// ответ, собранный в промежутке, получит метку, которая устареет сразу после коммита.
+// Учитываются только записи через сервис этого экземпляра; метка запуска отличает ETag после рестарта
+@Service
+public class FleetVersion {
+
+    private final String boot = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+
+    public String etag() {
+        return "\"" + boot + "-" + changes.get() + "\"";
+    }
+
+    public long changes() {
+        return changes.get();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void beforeCommit(ShipChangeEvent event) {
+        changes.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void afterCommit(ShipChangeEvent event) {
+        changes.incrementAndGet();
+    }
+}
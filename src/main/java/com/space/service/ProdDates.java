@@ -0,0 +1,46 @@
+package com.space.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+
+public final class ProdDates {
+
+    public static final int CURRENT_YEAR = 3019;
+    public static final int MIN_YEAR = 2800;
+    public static final int MAX_YEAR = CURRENT_YEAR;
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    // YEAR_STARTS[i] - начало года MIN_YEAR + i в миллисекундах, последний элемент - начало MAX_YEAR + 1
+    private static final long[] YEAR_STARTS = new long[MAX_YEAR - MIN_YEAR + 2];
+
+    static {
+        for (int i = 0; i < YEAR_STARTS.length; i++)
+            YEAR_STARTS[i] = LocalDate.of(MIN_YEAR + i, 1, 1).atStartOfDay(ZONE).toInstant().toEpochMilli();
+    }
+
+    private ProdDates() {
+    }
+
+    public static boolean isValid(Date prodDate) {
+        long millis = prodDate.getTime();
+        return millis >= YEAR_STARTS[0] && millis < YEAR_STARTS[YEAR_STARTS.length - 1];
+    }
+
+    public static int yearOf(Date prodDate) {
+        return yearOf(prodDate.getTime());
+    }
+
+    public static int yearOf(long millis) {
+        if (millis < YEAR_STARTS[0] || millis >= YEAR_STARTS[YEAR_STARTS.length - 1])
+            return Instant.ofEpochMilli(millis).atZone(ZONE).getYear();
+        int index = Arrays.binarySearch(YEAR_STARTS, millis);
+        return MIN_YEAR + (index >= 0 ? index : -index - 2);
+    }
+
+    public static long startOfDay(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZONE).toLocalDate().atStartOfDay(ZONE).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,113 @@
+package com.space.service;
+
+import com.space.exceptions.ServiceUnavailableException;
+import com.space.metrics.Histogram;
+import com.space.metrics.Metrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Ограниченные пулы для тяжёлых запросов (список и страница, count, export), чтобы поток контейнера
+// не ждал JDBC. У каждого эндпоинта свой пул: долгая выгрузка не занимает потоки подсчёта.
+// При полной очереди abort отвечает 503, caller-runs выполняет запрос на потоке контейнера
+@Service
+public class QueryExecutors implements InitializingBean, DisposableBean {
+
+    public static final String LIST = "list";
+    public static final String COUNT = "count";
+    public static final String EXPORT = "export";
+
+    @Autowired
+    private Metrics metrics;
+
+    @Value("${async.list.threads:16}")
+    private int listThreads;
+
+    @Value("${async.list.queueSize:256}")
+    private int listQueueSize;
+
+    @Value("${async.count.threads:8}")
+    private int countThreads;
+
+    @Value("${async.count.queueSize:256}")
+    private int countQueueSize;
+
+    @Value("${async.export.threads:4}")
+    private int exportThreads;
+
+    @Value("${async.export.queueSize:16}")
+    private int exportQueueSize;
+
+    @Value("${async.rejectionPolicy:abort}")
+    private String rejectionPolicy;
+
+    private final Map<String, ThreadPoolExecutor> executors = new HashMap<>();
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!"abort".equals(rejectionPolicy) && !"caller-runs".equals(rejectionPolicy))
+            throw new IllegalArgumentException("async.rejectionPolicy must be abort or caller-runs: " + rejectionPolicy);
+        create(LIST, listThreads, listQueueSize);
+        create(COUNT, countThreads, countQueueSize);
+        create(EXPORT, exportThreads, exportQueueSize);
+    }
+
+    // Запрос выполняется на пуле executor; счётчик SQL текущего HTTP-запроса переносится на поток пула
+    public <T> CompletableFuture<T> submit(String executor, Supplier<T> query) {
+        AtomicLong request = metrics.currentRequest();
+        Histogram queueWait = metrics.queueWait().get(executor);
+        long submitted = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWait.record(System.nanoTime() - submitted);
+                // caller-runs выполняет задачу на потоке контейнера, его привязка восстанавливается
+                AtomicLong previous = metrics.currentRequest();
+                metrics.attachRequest(request);
+                try {
+                    return query.get();
+                } finally {
+                    metrics.attachRequest(previous);
+                }
+            }, executors.get(executor));
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (ThreadPoolExecutor executor : executors.values()) executor.shutdownNow();
+    }
+
+    private void create(String name, int threads, int queueSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), new CustomizableThreadFactory("query-" + name + "-"),
+                rejection(name));
+        executor.allowCoreThreadTimeOut(true);
+        executors.put(name, executor);
+        metrics.registerExecutor(name, executor);
+    }
+
+    private RejectedExecutionHandler rejection(String name) {
+        boolean callerRuns = "caller-runs".equals(rejectionPolicy);
+        return (task, executor) -> {
+            metrics.executorRejected(name);
+            if (callerRuns && !executor.isShutdown()) task.run();
+            else throw new RejectedExecutionException("Executor " + name + " is saturated");
+        };
+    }
+}
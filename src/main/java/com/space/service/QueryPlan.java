@@ -0,0 +1,63 @@
+package com.space.service;
+
+// Решение планировщика для одного запроса чтения: откуда берётся результат, сколько строк ожидалось и сколько вышло.
+// Для списка и страницы строки - отданные корабли, для запросов с подсчётом - подходящие под фильтр
+public class QueryPlan {
+
+    public enum Strategy {
+        CACHED,     //Готовый результат такого же запроса (SingleFlight)
+        INDEX,      //Копия флота в памяти (FleetIndex)
+        AGGREGATES, //Поддерживаемые записями агрегаты всего флота (FleetAggregates)
+        DATABASE
+    }
+
+    private final String query;
+    private final Strategy strategy;
+    private final boolean index;    //Источник, если результат всё же придётся вычислять
+    private final long estimated;   //-1 - статистики нет
+    private final double cost;      //Оценка в микросекундах
+    private volatile long actual = -1;
+
+    QueryPlan(String query, Strategy strategy, boolean index, long estimated, double cost) {
+        this.query = query;
+        this.strategy = strategy;
+        this.index = index;
+        this.estimated = estimated;
+        this.cost = cost;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public boolean usesIndex() {
+        return index;
+    }
+
+    public long getEstimated() {
+        return estimated;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    public long getActual() {
+        return actual;
+    }
+
+    void setActual(long actual) {
+        this.actual = actual;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder plan = new StringBuilder(strategy.name().toLowerCase());
+        if (estimated >= 0) plan.append("; estimated=").append(estimated).append("; cost=").append(Math.round(cost));
+        return plan.append("; actual=").append(actual).toString();
+    }
+}
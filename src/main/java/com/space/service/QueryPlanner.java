@@ -0,0 +1,181 @@
+package com.space.service;
+
+import com.space.metrics.Metrics;
+import com.space.repository.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+// Выбирает, откуда взять результат списка, страницы или подсчёта: готовый результат SingleFlight, индекс в памяти
+// или база. Число подходящих строк оценивается по FleetStatistics, стоимость - по грубой модели ниже.
+// Статистика собирается при старте и пересобирается в фоне, когда через сервис изменилось больше
+// max(planner.minChanges, 10% флота) кораблей
+@Service
+public class QueryPlanner implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueryPlanner.class);
+
+    // Стоимости в микросекундах; важны соотношения, а не точные значения
+    private static final double DB_QUERY = 200;                //Запрос к базе: сеть, разбор, выполнение
+    private static final double DB_EXAMINED_ROW = 0.05;        //Строка, просмотренная базой
+    private static final double DB_ROW = 2;                    //Строка, переданная и собранная в сущность
+    private static final double INDEX_ROW_CONDITION = 0.002;   //Проверка одного условия для строки в памяти
+    private static final double INDEX_ROW = 0.1;               //Копия корабля из колонок индекса
+    private static final double INDEX_LOAD_ROW = 3;            //Загрузка строки в индекс
+
+    @Autowired
+    private Repository repository;
+
+    @Autowired
+    private FleetIndex fleetIndex;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private Metrics metrics;
+
+    @Value("${planner.enabled:true}")
+    private boolean enabled;
+
+    @Value("${planner.minChanges:1000}")
+    private long minChanges;
+
+    @Value("${planner.debugHeader:false}")
+    private boolean debugHeader;
+
+    private volatile FleetStatistics statistics;
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    // Выигрыш, который дал бы ещё не загруженный индекс; когда он сравняется с ценой загрузки, индекс загружается
+    private final DoubleAdder indexSavings = new DoubleAdder();
+    private final ThreadLocal<QueryPlan> lastPlan = new ThreadLocal<>();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(daemonThreads());
+
+    // limit - сколько строк отдаётся (0 - только подсчёт), counted - нужно ли число всех подходящих строк
+    public QueryPlan plan(String query, ShipFilter filter, long offset, int limit, boolean counted, Object... key) {
+        FleetStatistics stats = statistics;
+        boolean indexEnabled = fleetIndex.isEnabled();
+        if (!enabled || stats == null)
+            return new QueryPlan(query, indexEnabled ? QueryPlan.Strategy.INDEX : QueryPlan.Strategy.DATABASE,
+                    indexEnabled, -1, 0);
+
+        double total = stats.total();
+        double matches = total * stats.selectivity(filter);
+        double returned = Math.min(limit, Math.max(0, matches - offset));
+        int queries = (limit > 0 ? 1 : 0) + (counted ? 1 : 0);
+        // Короткая первая страница сама даёт число подходящих строк
+        if (counted && limit > 0 && offset == 0 && matches < limit) queries = 1;
+        double database = queries * (DB_QUERY + total * stats.indexedSelectivity(filter) * DB_EXAMINED_ROW)
+                + returned * DB_ROW;
+        double index = total * (1 + conditions(filter)) * INDEX_ROW_CONDITION + returned * INDEX_ROW;
+
+        boolean useIndex = false;
+        if (indexEnabled && index < database) {
+            if (fleetIndex.isLoaded()) {
+                useIndex = true;
+            } else {
+                indexSavings.add(database - index);
+                useIndex = indexSavings.sum() >= total * INDEX_LOAD_ROW;
+            }
+        }
+        long estimated = Math.round(counted ? matches : returned);
+        if (singleFlight.hasResult(key)) return new QueryPlan(query, QueryPlan.Strategy.CACHED, useIndex, estimated, 0);
+        return new QueryPlan(query, useIndex ? QueryPlan.Strategy.INDEX : QueryPlan.Strategy.DATABASE, useIndex,
+                estimated, useIndex ? index : database);
+    }
+
+    // Подсчёт или статистика всего флота, взятые из FleetAggregates без просмотра строк
+    public QueryPlan aggregated(String query, long rows) {
+        return new QueryPlan(query, QueryPlan.Strategy.AGGREGATES, false, rows, 0);
+    }
+
+    public void executed(QueryPlan plan, long actual) {
+        plan.setActual(actual);
+        metrics.queryPlanned(plan.getStrategy().name().toLowerCase());
+        if (LOG.isDebugEnabled()) LOG.debug("{}: {}", plan.getQuery(), plan);
+        if (debugHeader) lastPlan.set(plan);
+    }
+
+    // План последнего запроса этого потока, если включён planner.debugHeader
+    public QueryPlan takeLastPlan() {
+        QueryPlan plan = lastPlan.get();
+        lastPlan.remove();
+        return plan;
+    }
+
+    public void refreshStatistics() {
+        changes.set(0);
+        statistics = new FleetStatistics(repository.countByTypeAndUsed(), repository.countBySpeedHundredth(),
+                repository.countByCrewSizeHundred(), repository.countByRatingUnit(), repository.countByProdYear());
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) refreshQuietly();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShipChange(ShipChangeEvent event) {
+        long changed = changes.addAndGet(event.getSaved().size() + event.getDeleted().size());
+        FleetStatistics stats = statistics;
+        if (!enabled || changed < Math.max(minChanges, stats == null ? 0 : stats.total() / 10)) return;
+        if (!refreshing.compareAndSet(false, true)) return;
+        try {
+            refresher.execute(() -> {
+                try {
+                    refreshQuietly();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+
+    private void refreshQuietly() {
+        try {
+            refreshStatistics();
+        } catch (RuntimeException e) {
+            LOG.warn("Fleet statistics are not available, queries are planned without estimates", e);
+        }
+    }
+
+    private static int conditions(ShipFilter filter) {
+        int conditions = 0;
+        if (filter.getName() != null) conditions++;
+        if (filter.getPlanet() != null) conditions++;
+        if (filter.getShipType() != null) conditions++;
+        if (filter.getUsed() != null) conditions++;
+        if (filter.getAfter() != null || filter.getBefore() != null) conditions++;
+        if (filter.getMinSpeed() != null || filter.getMaxSpeed() != null) conditions++;
+        if (filter.getMinCrewSize() != null || filter.getMaxCrewSize() != null) conditions++;
+        if (filter.getMinRating() != null || filter.getMaxRating() != null) conditions++;
+        return conditions;
+    }
+
+    private static CustomizableThreadFactory daemonThreads() {
+        CustomizableThreadFactory factory = new CustomizableThreadFactory("planner-statistics-");
+        factory.setDaemon(true);
+        return factory;
+    }
+}
@@ -0,0 +1,155 @@
+package com.space.service;
+
+import com.space.model.JobCheckpoint;
+import com.space.model.RatingJobStatus;
+import com.space.model.Ship;
+import com.space.repository.JobCheckpointRepository;
+import com.space.repository.Repository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Пересчитывает рейтинг всех кораблей диапазонами id в несколько потоков.
+// После каждого непрерывно завершённого диапазона сохраняется checkpoint, прерванный запуск продолжается с него
+@Service
+public class RatingRecomputeJob implements DisposableBean {
+
+    static final String NAME = "rating-recompute";
+
+    @Autowired
+    private Repository repository;
+
+    @Autowired
+    private JobCheckpointRepository checkpoints;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${rating.job.chunkSize:1000}")
+    private int chunkSize;
+
+    @Value("${rating.job.threads:0}")
+    private int threads;
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private volatile String state = "IDLE";
+    private volatile long checkpoint;
+    private volatile long maxId;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String error;
+    private volatile ExecutorService pool;
+
+    public synchronized RatingJobStatus start(boolean restart) {
+        if ("RUNNING".equals(state)) return status();
+        if (restart && checkpoints.existsById(NAME)) checkpoints.deleteById(NAME);
+        Long lastId = repository.findMaxId();
+        checkpoint = checkpoints.findById(NAME).map(JobCheckpoint::getLastId).orElse(0L);
+        maxId = lastId == null ? 0 : lastId;
+        processed.set(0);
+        updated.set(0);
+        error = null;
+        startedAt = System.nanoTime();
+        finishedAt = 0;
+        state = "RUNNING";
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        pool = Executors.newFixedThreadPool(workers);
+        Thread coordinator = new Thread(() -> run(workers), NAME);
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return status();
+    }
+
+    public RatingJobStatus status() {
+        long end = finishedAt == 0 ? System.nanoTime() : finishedAt;
+        long elapsedMillis = startedAt == 0 ? 0 : (end - startedAt) / 1_000_000;
+        return new RatingJobStatus(state, processed.get(), updated.get(), checkpoint, maxId, elapsedMillis, error);
+    }
+
+    @Override
+    public void destroy() {
+        ExecutorService current = pool;
+        if (current != null) current.shutdownNow();
+    }
+
+    private void run(int workers) {
+        // Окно из нескольких диапазонов на поток; результаты забираются по порядку, поэтому checkpoint не перескакивает
+        Deque<Future<Long>> window = new ArrayDeque<>();
+        String result = "DONE";
+        try {
+            long next = checkpoint + 1;
+            while (next <= maxId || !window.isEmpty()) {
+                while (next <= maxId && window.size() < workers * 2) {
+                    long from = next;
+                    long to = Math.min(maxId, next + chunkSize - 1);
+                    window.add(pool.submit(() -> recompute(from, to)));
+                    next = to + 1;
+                }
+                long done = window.poll().get();
+                checkpoints.save(new JobCheckpoint(NAME, done));
+                checkpoint = done;
+            }
+            if (checkpoints.existsById(NAME)) checkpoints.deleteById(NAME);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = fail(e);
+        } catch (ExecutionException e) {
+            result = fail(e.getCause());
+        } catch (RuntimeException e) {
+            result = fail(e);
+        } finally {
+            pool.shutdownNow();
+            finishedAt = System.nanoTime();
+            state = result;
+        }
+    }
+
+    private long recompute(long fromId, long toId) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.execute(status -> {
+            List<Ship> ships = repository.findByIdBetween(fromId, toId);
+            List<Ship> changed = new ArrayList<>();
+            List<Ship> previous = new ArrayList<>();
+            for (Ship ship : ships) {
+                if (ship.getSpeed() == null || ship.getUsed() == null || ship.getProdDate() == null) continue;
+                double rating = Ratings.of(ship.getSpeed(), ship.getUsed(), ProdDates.yearOf(ship.getProdDate()));
+                if (ship.getRating() == null || ship.getRating() != rating) {
+                    previous.add(ShipChangeEvent.copyOf(ship));
+                    ship.setRating(rating);
+                    changed.add(ship);
+                }
+            }
+            updated.addAndGet(changed.size());
+            if (!changed.isEmpty()) {
+                repository.flush();
+                eventPublisher.publishEvent(ShipChangeEvent.updated(changed, previous));
+            }
+            processed.addAndGet(ships.size());
+            return null;
+        });
+        return toId;
+    }
+
+    private String fail(Throwable cause) {
+        error = String.valueOf(cause);
+        return "FAILED";
+    }
+}
@@ -0,0 +1,37 @@
+package com.space.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public final class Ratings {
+
+    // Ближе этого к середине между сотыми double уже не отличает округление вверх от вниз
+    private static final double TIE_TOLERANCE = 1e-6;
+
+    private Ratings() {
+    }
+
+    // Рейтинг, округлённый до сотых по HALF_UP, без BigDecimal. Совпадает с exact() для любых входных данных
+    public static double of(double speed, boolean isUsed, int year) {
+        double raw = rawRating(speed, isUsed, year);
+        double scaled = raw * 100;
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (Math.abs(fraction - 0.5) < TIE_TOLERANCE || Double.isInfinite(scaled) || Double.isNaN(scaled))
+            return round(raw);
+        return (fraction > 0.5 ? floor + 1 : floor) / 100;
+    }
+
+    // Эталонная формула: BigDecimal.valueOf берёт десятичную запись double, как и раньше
+    public static double exact(double speed, boolean isUsed, int year) {
+        return round(rawRating(speed, isUsed, year));
+    }
+
+    private static double rawRating(double speed, boolean isUsed, int year) {
+        return 80 * speed * (isUsed ? 0.5 : 1) / (ProdDates.CURRENT_YEAR - year + 1);
+    }
+
+    private static double round(double raw) {
+        return BigDecimal.valueOf(raw).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+}
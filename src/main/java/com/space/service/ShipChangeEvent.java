@@ -0,0 +1,66 @@
+package com.space.service;
+
+import com.space.model.Ship;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// Публикуется сервисом при каждой записи; слушатели получают его после коммита транзакции.
+// saved - копии сохранённых кораблей, чтобы последующие изменения сущностей их не затрагивали;
+// previous - копии изменённых и удалённых кораблей в том виде, в каком они были до записи
+public class ShipChangeEvent {
+
+    private final List<Ship> saved;
+    private final List<Long> deleted;
+    private final List<Ship> previous;
+
+    private ShipChangeEvent(List<Ship> saved, List<Long> deleted, List<Ship> previous) {
+        this.saved = saved;
+        this.deleted = deleted;
+        this.previous = previous;
+    }
+
+    // Новые корабли
+    public static ShipChangeEvent saved(Collection<Ship> ships) {
+        return updated(ships, Collections.emptyList());
+    }
+
+    // previous - снимки copyOf, сделанные до изменения сущностей
+    public static ShipChangeEvent updated(Collection<Ship> ships, Collection<Ship> previous) {
+        List<Ship> copies = new ArrayList<>(ships.size());
+        for (Ship ship : ships) copies.add(copyOf(ship));
+        return new ShipChangeEvent(copies, Collections.emptyList(), new ArrayList<>(previous));
+    }
+
+    public static ShipChangeEvent deleted(Collection<Ship> ships) {
+        List<Long> ids = new ArrayList<>(ships.size());
+        List<Ship> copies = new ArrayList<>(ships.size());
+        for (Ship ship : ships) {
+            ids.add(ship.getId());
+            copies.add(copyOf(ship));
+        }
+        return new ShipChangeEvent(Collections.emptyList(), ids, copies);
+    }
+
+    public List<Ship> getSaved() {
+        return saved;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+
+    public List<Ship> getPrevious() {
+        return previous;
+    }
+
+    static Ship copyOf(Ship ship) {
+        Ship copy = new Ship(ship.getName(), ship.getPlanet(), ship.getShipType(), ship.getProdDate(),
+                ship.getUsed(), ship.getSpeed(), ship.getCrewSize(), ship.getRating());
+        copy.setId(ship.getId());
+        copy.setVersion(ship.getVersion());
+        return copy;
+    }
+}
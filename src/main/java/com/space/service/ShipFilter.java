@@ -0,0 +1,122 @@
+package com.space.service;
+
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.repository.ShipSpecifications;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Objects;
+
+// Параметры фильтра GET /rest/ships одним значением; null - условие не задано.
+// Равные фильтры дают одинаковый ключ совмещения запросов
+public final class ShipFilter {
+
+    private final String name;
+    private final String planet;
+    private final ShipType shipType;
+    private final Long after;
+    private final Long before;
+    private final Boolean isUsed;
+    private final Double minSpeed;
+    private final Double maxSpeed;
+    private final Integer minCrewSize;
+    private final Integer maxCrewSize;
+    private final Double minRating;
+    private final Double maxRating;
+
+    public ShipFilter(String name, String planet, ShipType shipType, Long after, Long before,
+                      Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                      Integer maxCrewSize, Double minRating, Double maxRating) {
+        this.name = name;
+        this.planet = planet;
+        this.shipType = shipType;
+        this.after = after;
+        this.before = before;
+        this.isUsed = isUsed;
+        this.minSpeed = minSpeed;
+        this.maxSpeed = maxSpeed;
+        this.minCrewSize = minCrewSize;
+        this.maxCrewSize = maxCrewSize;
+        this.minRating = minRating;
+        this.maxRating = maxRating;
+    }
+
+    public Specification<Ship> toSpecification() {
+        return ShipSpecifications.filter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPlanet() {
+        return planet;
+    }
+
+    public ShipType getShipType() {
+        return shipType;
+    }
+
+    public Long getAfter() {
+        return after;
+    }
+
+    public Long getBefore() {
+        return before;
+    }
+
+    public Boolean getUsed() {
+        return isUsed;
+    }
+
+    public Double getMinSpeed() {
+        return minSpeed;
+    }
+
+    public Double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public Integer getMinCrewSize() {
+        return minCrewSize;
+    }
+
+    public Integer getMaxCrewSize() {
+        return maxCrewSize;
+    }
+
+    public Double getMinRating() {
+        return minRating;
+    }
+
+    public Double getMaxRating() {
+        return maxRating;
+    }
+
+    // Без условий: подходит весь флот
+    public boolean isEmpty() {
+        return name == null && planet == null && shipType == null && after == null && before == null
+                && isUsed == null && minSpeed == null && maxSpeed == null && minCrewSize == null
+                && maxCrewSize == null && minRating == null && maxRating == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ShipFilter)) return false;
+        ShipFilter that = (ShipFilter) o;
+        return Objects.equals(name, that.name) && Objects.equals(planet, that.planet)
+                && shipType == that.shipType && Objects.equals(after, that.after)
+                && Objects.equals(before, that.before) && Objects.equals(isUsed, that.isUsed)
+                && Objects.equals(minSpeed, that.minSpeed) && Objects.equals(maxSpeed, that.maxSpeed)
+                && Objects.equals(minCrewSize, that.minCrewSize) && Objects.equals(maxCrewSize, that.maxCrewSize)
+                && Objects.equals(minRating, that.minRating) && Objects.equals(maxRating, that.maxRating);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+    }
+}
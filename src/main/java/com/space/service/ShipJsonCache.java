@@ -0,0 +1,80 @@
+package com.space.service;
+
+import com.space.model.CacheRegionStats;
+import com.space.model.Ship;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Готовый JSON кораблей по ключу id + версия, чтобы ответы со списками собирались из байтов без сериализации.
+// Корабль без версии не кэшируется. Записи изменённых через сервис кораблей сбрасываются, так что
+// совпадение версии после пересоздания строки с тем же id не отдаст чужие байты
+@Service
+public class ShipJsonCache {
+
+    public static final String REGION = "ship-json";
+
+    @Value("${json.cache.maxEntries:100000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public byte[] get(Ship ship) {
+        if (ship.getId() == null || ship.getVersion() == null) return null;
+        Entry entry = entries.get(ship.getId());
+        if (entry != null && entry.version == ship.getVersion()) {
+            hits.increment();
+            return entry.json;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(Ship ship, byte[] json) {
+        if (ship.getId() == null || ship.getVersion() == null || maxEntries <= 0) return;
+        // Граница приблизительная: при переполнении вытесняется произвольная запись
+        if (entries.size() >= maxEntries && !entries.containsKey(ship.getId())) {
+            Iterator<Long> iterator = entries.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+        entries.put(ship.getId(), new Entry(ship.getVersion(), json));
+        puts.increment();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public CacheRegionStats stats() {
+        return new CacheRegionStats(REGION, hits.sum(), misses.sum(), puts.sum(), evictions.sum(), entries.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onShipChange(ShipChangeEvent event) {
+        for (Ship ship : event.getSaved()) entries.remove(ship.getId());
+        for (Long id : event.getDeleted()) entries.remove(id);
+    }
+
+    private static class Entry {
+
+        private final long version;
+        private final byte[] json;
+
+        Entry(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+}
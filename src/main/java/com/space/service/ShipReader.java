@@ -0,0 +1,11 @@
+package com.space.service;
+
+import com.space.model.Ship;
+
+import java.io.IOException;
+
+// Источник кораблей для импорта. Испорченная запись пропускается с BadRequestException,
+// после чего чтение можно продолжать
+public interface ShipReader {
+    Ship next() throws IOException;
+}
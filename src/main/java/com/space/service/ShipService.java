@@ -1,18 +1,52 @@
 package com.space.service;
 
+import com.space.controller.ShipCursor;
 import com.space.controller.ShipOrder;
+import com.space.model.BatchItemResult;
+import com.space.model.FleetStats;
+import com.space.model.ImportReport;
 import com.space.model.Ship;
+import com.space.model.ShipPage;
 import com.space.model.ShipType;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ShipService {
     List<Ship> getAllShips(String name, String planet, ShipType shipType, Long after, Long before,
                            Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
                            Integer maxCrewSize, Double minRating, Double maxRating);
-    List<Ship> pagedShips(List<Ship> ships, Integer pageNumber, Integer pageSize, ShipOrder shipOrder);
+    long countShips(String name, String planet, ShipType shipType, Long after, Long before,
+                    Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                    Integer maxCrewSize, Double minRating, Double maxRating);
+    List<Ship> pagedShips(String name, String planet, ShipType shipType, Long after, Long before,
+                          Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                          Integer maxCrewSize, Double minRating, Double maxRating,
+                          Integer pageNumber, Integer pageSize, ShipOrder shipOrder);
+    ShipPage pagedShipsWithCount(String name, String planet, ShipType shipType, Long after, Long before,
+                                 Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                 Integer maxCrewSize, Double minRating, Double maxRating,
+                                 Integer pageNumber, Integer pageSize, ShipOrder shipOrder);
+    List<Ship> shipsAfter(String name, String planet, ShipType shipType, Long after, Long before,
+                          Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                          Integer maxCrewSize, Double minRating, Double maxRating,
+                          ShipCursor cursor, Integer pageSize, ShipOrder shipOrder);
+    FleetStats shipStats(String name, String planet, ShipType shipType, Long after, Long before,
+                         Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                         Integer maxCrewSize, Double minRating, Double maxRating);
+    void exportShips(String name, String planet, ShipType shipType, Long after, Long before,
+                     Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                     Integer maxCrewSize, Double minRating, Double maxRating,
+                     ShipOrder shipOrder, Consumer<Ship> action);
     Ship createShip(Ship ship);
     Ship getShipById(String id);
     Ship updateShip(String id, Ship ship);
+    // expectedVersion - версия из If-Match; null - обновить без проверки
+    Ship updateShip(String id, Ship ship, Long expectedVersion);
     void deleteShip(String id);
+    List<BatchItemResult> createShips(List<Ship> ships);
+    ImportReport importShips(ShipReader reader, Consumer<ImportReport> progress) throws IOException;
+    List<BatchItemResult> updateShips(List<Ship> ships);
+    List<BatchItemResult> deleteShips(List<Long> ids);
 }
\ No newline at end of file
@@ -1,90 +1,294 @@
 package com.space.service;
 
+import com.space.controller.ShipCursor;
 import com.space.controller.ShipOrder;
 import com.space.exceptions.BadRequestException;
+import com.space.exceptions.ConflictException;
 import com.space.exceptions.NotFoundException;
+import com.space.exceptions.PreconditionFailedException;
+import com.space.metrics.Metrics;
+import com.space.model.BatchItemResult;
+import com.space.model.FleetStats;
+import com.space.model.ImportReport;
 import com.space.model.Ship;
+import com.space.model.ShipPage;
 import com.space.model.ShipType;
 import com.space.repository.Repository;
+import com.space.repository.ShipSpecifications;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-public class ShipServiceImpl implements ShipService{
+public class ShipServiceImpl implements ShipService, InitializingBean {
 
     @Autowired
     private Repository repository;
-    private Calendar calendar = Calendar.getInstance();
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private FleetIndex fleetIndex;
+
+    @Autowired
+    private Metrics metrics;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private QueryPlanner planner;
+
+    @Autowired
+    private FleetAggregates aggregates;
+
+    @Value("${batch.chunkSize:1000}")
+    private int batchChunkSize;
+
+    @Value("${export.fetchSize:1000}")
+    private int exportFetchSize;
+
+    @Value("${import.maxErrors:100}")
+    private int importMaxErrors;
+
+    // При нулевом размере пачки циклы по пачкам не продвигаются, при отрицательном - падают
+    @Override
+    public void afterPropertiesSet() {
+        if (batchChunkSize <= 0)
+            throw new IllegalArgumentException("batch.chunkSize must be positive: " + batchChunkSize);
+    }
 
     @Override
     public List<Ship> getAllShips(String name, String planet, ShipType shipType, Long after, Long before,
                                   Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
                                   Integer maxCrewSize, Double minRating, Double maxRating) {
-        Iterable<Ship> ships = repository.findAll();
-        List<Ship> shipsList = new ArrayList<>();
-        boolean isActual;
-        for (Ship ship : ships) {
-            calendar.setTime(ship.getProdDate());
-            isActual = name == null || ship.getName().toLowerCase().contains(name.toLowerCase());
-            if (planet != null && !ship.getPlanet().toLowerCase().contains(planet.toLowerCase())) isActual = false;
-            if (shipType != null && (!ship.getShipType().equals(shipType.toString()))) isActual = false;
-            if (after != null || before != null) {
-                if (after == null) after = 0L;
-                if (before == null) before = Long.MAX_VALUE;
-                Calendar calendarAfter = Calendar.getInstance();
-                calendarAfter.setTimeInMillis(after);
-                Calendar calendarBefore = Calendar.getInstance();
-                calendarBefore.setTimeInMillis(before);
-                if (this.calendar.getTimeInMillis() <= calendarAfter.getTimeInMillis()
-                        || this.calendar.getTimeInMillis() >= calendarBefore.getTimeInMillis()) isActual = false;
-            }
-            if (isUsed != null && isUsed != ship.getUsed()) isActual = false;
-            if (minSpeed != null || maxSpeed != null) {
-                if (minSpeed == null) minSpeed = Double.MIN_VALUE;
-                if (maxSpeed == null) maxSpeed = Double.MAX_VALUE;
-                if (ship.getSpeed() <= minSpeed || ship.getSpeed() >= maxSpeed) isActual = false;
-            }
-            if (minCrewSize != null || maxCrewSize != null) {
-                if (minCrewSize == null) minCrewSize = Integer.MIN_VALUE;
-                if (maxCrewSize == null) maxCrewSize = Integer.MAX_VALUE;
-                if (ship.getCrewSize() <= minCrewSize || ship.getCrewSize() >= maxCrewSize) isActual = false;
-            }
-            if (minRating != null || maxRating != null) {
-                if (minRating == null) minRating = Double.MIN_VALUE;
-                if (maxRating == null) maxRating = Double.MAX_VALUE;
-                if (ship.getRating() <= minRating || ship.getRating() >= maxRating) isActual = false;
-            }
-            if (isActual)
-                shipsList.add(ship);
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        Object[] key = {"all", filter};
+        QueryPlan plan = planner.plan("all", filter, 0, Integer.MAX_VALUE, false, key);
+        List<Ship> ships = singleFlight.execute(() -> allShips(filter, plan.usesIndex()), key);
+        planner.executed(plan, ships.size());
+        return ships;
+    }
+
+    @Override
+    public long countShips(String name, String planet, ShipType shipType, Long after, Long before,
+                           Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                           Integer maxCrewSize, Double minRating, Double maxRating) {
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        Long total = filter.isEmpty() ? aggregates.count() : null;
+        if (total != null) {
+            planner.executed(planner.aggregated("count", total), total);
+            return total;
+        }
+        Object[] key = {"count", filter};
+        QueryPlan plan = planner.plan("count", filter, 0, 0, true, key);
+        long count = singleFlight.execute(() -> count(filter, plan.usesIndex()), key);
+        planner.executed(plan, count);
+        return count;
+    }
+
+    @Override
+    public List<Ship> pagedShips(String name, String planet, ShipType shipType, Long after, Long before,
+                                 Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                 Integer maxCrewSize, Double minRating, Double maxRating,
+                                 Integer pageNumber, Integer pageSize, ShipOrder shipOrder) {
+        int number = pageNumber == null ? 0 : pageNumber;
+        int size = pageSize == null ? 3 : pageSize;
+        ShipOrder order = shipOrder == null ? ShipOrder.ID : shipOrder;
+        if (number < 0 || size < 0) throw new BadRequestException();
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        long offset = (long) number * size;
+        Object[] key = {"page", filter, order, offset, size};
+        QueryPlan plan = planner.plan("page", filter, offset, size, false, key);
+        List<Ship> ships = singleFlight.execute(() -> page(filter, order, offset, size, plan.usesIndex()), key);
+        planner.executed(plan, ships.size());
+        return ships;
+    }
+
+    @Override
+    public ShipPage pagedShipsWithCount(String name, String planet, ShipType shipType, Long after, Long before,
+                                        Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                        Integer maxCrewSize, Double minRating, Double maxRating,
+                                        Integer pageNumber, Integer pageSize, ShipOrder shipOrder) {
+        int number = pageNumber == null ? 0 : pageNumber;
+        int size = pageSize == null ? 3 : pageSize;
+        ShipOrder order = shipOrder == null ? ShipOrder.ID : shipOrder;
+        if (number < 0 || size < 0) throw new BadRequestException();
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        long offset = (long) number * size;
+        Object[] key = {"pageWithCount", filter, order, offset, size};
+        QueryPlan plan = planner.plan("pageWithCount", filter, offset, size, true, key);
+        ShipPage page = singleFlight.execute(() -> pageWithCount(filter, order, offset, size, plan.usesIndex()), key);
+        planner.executed(plan, page.getCount());
+        return page;
+    }
+
+    @Override
+    public List<Ship> shipsAfter(String name, String planet, ShipType shipType, Long after, Long before,
+                                 Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                 Integer maxCrewSize, Double minRating, Double maxRating,
+                                 ShipCursor cursor, Integer pageSize, ShipOrder shipOrder) {
+        int size = pageSize == null ? 3 : pageSize;
+        ShipOrder order = shipOrder == null ? ShipOrder.ID : shipOrder;
+        if (size < 0 || (cursor != null && cursor.getOrder() != order)) throw new BadRequestException();
+        if (size == 0) return Collections.emptyList();
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        return singleFlight.execute(() -> shipsAfter(filter, cursor, order, size),
+                "after", filter, cursor == null ? null : cursor.encode(), order, size);
+    }
+
+    @Override
+    public FleetStats shipStats(String name, String planet, ShipType shipType, Long after, Long before,
+                                Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                                Integer maxCrewSize, Double minRating, Double maxRating) {
+        ShipFilter filter = new ShipFilter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+        FleetStats fleet = filter.isEmpty() ? aggregates.stats() : null;
+        if (fleet != null) {
+            planner.executed(planner.aggregated("stats", fleet.getCount()), fleet.getCount());
+            return fleet;
+        }
+        Object[] key = {"stats", filter};
+        QueryPlan plan = planner.plan("stats", filter, 0, Integer.MAX_VALUE, false, key);
+        FleetStats stats = singleFlight.execute(() -> stats(filter, plan.usesIndex()), key);
+        planner.executed(plan, stats.getCount());
+        return stats;
+    }
+
+    private List<Ship> allShips(ShipFilter filter, boolean index) {
+        if (index) {
+            List<Ship> ships = fleetIndex.page(filter, ShipOrder.ID, 0, Integer.MAX_VALUE);
+            metrics.filterRows(true, fleetIndex.size(), ships.size());
+            return ships;
+        }
+        List<Ship> ships = repository.findAll(filter.toSpecification());
+        metrics.filterRows(false, ships.size(), ships.size());
+        return ships;
+    }
+
+    private long count(ShipFilter filter, boolean index) {
+        if (index) {
+            long count = fleetIndex.count(filter);
+            metrics.filterRows(true, fleetIndex.size(), 0);
+            return count;
+        }
+        long count = repository.countMatching(filter.toSpecification());
+        metrics.filterRows(false, count, 0);
+        return count;
+    }
+
+    private List<Ship> page(ShipFilter filter, ShipOrder shipOrder, long offset, int pageSize, boolean index) {
+        if (index) {
+            List<Ship> ships = fleetIndex.page(filter, shipOrder, offset, pageSize);
+            metrics.filterRows(true, fleetIndex.size(), ships.size());
+            return ships;
+        }
+        if (pageSize == 0 || offset > Integer.MAX_VALUE) return Collections.emptyList();
+        List<Ship> ships = repository.findSlice(filter.toSpecification(), sortOf(shipOrder), (int) offset, pageSize);
+        metrics.filterRows(false, ships.size(), ships.size());
+        return ships;
+    }
+
+    private ShipPage pageWithCount(ShipFilter filter, ShipOrder shipOrder, long offset, int pageSize,
+                                   boolean index) {
+        if (index) {
+            List<Ship> ships = new ArrayList<>();
+            long count = fleetIndex.page(filter, shipOrder, offset, pageSize, ships);
+            metrics.filterRows(true, fleetIndex.size(), ships.size());
+            return new ShipPage(ships, count);
+        }
+        Specification<Ship> spec = filter.toSpecification();
+        if (pageSize == 0 || offset > Integer.MAX_VALUE) {
+            long count = repository.countMatching(spec);
+            metrics.filterRows(false, count, 0);
+            return new ShipPage(Collections.emptyList(), count);
         }
-        return shipsList;
+        List<Ship> ships = repository.findSlice(spec, sortOf(shipOrder), (int) offset, pageSize);
+        // Короткая первая страница уже содержит все подходящие корабли
+        long count = offset == 0 && ships.size() < pageSize ? ships.size() : repository.countMatching(spec);
+        metrics.filterRows(false, count, ships.size());
+        return new ShipPage(ships, count);
+    }
+
+    // Один проход: по колонкам индекса или по потоку колонок из базы
+    private FleetStats stats(ShipFilter filter, boolean index) {
+        FleetStatsCollector collector = new FleetStatsCollector();
+        if (index) {
+            fleetIndex.collect(filter, collector);
+            FleetStats stats = collector.result();
+            metrics.filterRows(true, fleetIndex.size(), 0);
+            return stats;
+        }
+        Specification<Ship> spec = filter.toSpecification();
+        TransactionTemplate transaction = transactionTemplate();
+        transaction.setReadOnly(true);
+        transaction.execute(status -> {
+            try (Stream<Object[]> rows = repository.streamStatsColumns(spec, exportFetchSize)) {
+                rows.forEach(collector::add);
+            }
+            return null;
+        });
+        FleetStats stats = collector.result();
+        metrics.filterRows(false, stats.getCount(), 0);
+        return stats;
+    }
+
+    private List<Ship> shipsAfter(ShipFilter filter, ShipCursor cursor, ShipOrder shipOrder, int pageSize) {
+        Specification<Ship> spec = filter.toSpecification();
+        if (cursor != null) spec = spec.and(seekAfter(cursor, shipOrder));
+        List<Ship> ships = repository.findSlice(spec, sortOf(shipOrder), 0, pageSize);
+        metrics.filterRows(false, ships.size(), ships.size());
+        return ships;
     }
 
     @Override
-    public List<Ship> pagedShips(List<Ship> ships, Integer pageNumber, Integer pageSize, ShipOrder shipOrder) {
-        if (pageNumber == null) pageNumber = 0;
-        if (pageSize == null) pageSize = 3;
+    public void exportShips(String name, String planet, ShipType shipType, Long after, Long before,
+                            Boolean isUsed, Double minSpeed, Double maxSpeed, Integer minCrewSize,
+                            Integer maxCrewSize, Double minRating, Double maxRating,
+                            ShipOrder shipOrder, Consumer<Ship> action) {
         if (shipOrder == null) shipOrder = ShipOrder.ID;
-        if (shipOrder.getFieldName().equals(ShipOrder.DATE.getFieldName())) return ships.stream()
-                .sorted(Comparator.comparing(Ship::getProdDate)).skip(pageNumber*pageSize)
-                .limit(pageSize).collect(Collectors.toList());
-        if (shipOrder.getFieldName().equals(ShipOrder.RATING.getFieldName())) return ships.stream()
-                .sorted(Comparator.comparing(Ship::getRating)).skip(pageNumber*pageSize)
-                .limit(pageSize).collect(Collectors.toList());
-        if (shipOrder.getFieldName().equals(ShipOrder.SPEED.getFieldName())) return ships.stream()
-                .sorted(Comparator.comparing(Ship::getSpeed)).skip(pageNumber*pageSize)
-                .limit(pageSize).collect(Collectors.toList());
-        return ships.stream().sorted(Comparator.comparing(Ship::getId)).skip(pageNumber*pageSize)
-                .limit(pageSize).collect(Collectors.toList());
+        Specification<Ship> spec = new ShipFilter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating).toSpecification();
+        Sort sort = sortOf(shipOrder);
+        TransactionTemplate transaction = transactionTemplate();
+        transaction.setReadOnly(true);
+        transaction.execute(status -> {
+            try (Stream<Ship> ships = repository.streamMatching(spec, sort, exportFetchSize)) {
+                ships.forEach(action);
+            }
+            return null;
+        });
     }
 
     @Override
@@ -99,65 +303,267 @@ public class ShipServiceImpl implements ShipService{
 
     @Override
     public Ship createShip(Ship ship) {
-        if (ship.getProdDate() == null) throw new BadRequestException();
-        calendar.setTime(ship.getProdDate());
-        if (ship.getName() == null || ship.getPlanet() == null || ship.getShipType() == null
-                ||ship.getProdDate() == null || ship.getSpeed() == null
-                || ship.getCrewSize() == null) throw new BadRequestException();
-        calendar.setTime(ship.getProdDate());
-        if (ship.getName().length() == 0 || ship.getName().length() > 50 || ship.getPlanet().length() == 0
-                || ship.getPlanet().length() > 50 || calendar.get(Calendar.YEAR) > 3019
-                || calendar.get(Calendar.YEAR) < 2800 || ship.getSpeed() > 0.99 || ship.getSpeed() < 0.01
-                || ship.getCrewSize() < 1 || ship.getCrewSize() > 9999) throw new BadRequestException();
+        checkNewShip(ship);
         if (ship.getUsed() == null) ship.setUsed(false);
         calculateRating(ship);
-        return repository.saveAndFlush(ship);
+        // Событие публикуется до коммита, чтобы его видели слушатели BEFORE_COMMIT (FleetAggregates)
+        return transactionTemplate().execute(status -> {
+            Ship saved = repository.saveAndFlush(ship);
+            eventPublisher.publishEvent(ShipChangeEvent.saved(Collections.singletonList(saved)));
+            return saved;
+        });
     }
 
     @Override
     public Ship updateShip( String id, Ship ship) {
+        return updateShip(id, ship, null);
+    }
+
+    @Override
+    public Ship updateShip(String id, Ship ship, Long expectedVersion) {
         Long longId = idStringToLong(id);
-        if (!repository.existsById(longId)) throw new NotFoundException();
-        Ship modifiedShip = repository.findById(longId).get();
-        if (ship.getName() != null) {
-            if (ship.getName().length() == 0 || ship.getName().length() > 50) throw new BadRequestException();
-            modifiedShip.setName(ship.getName());
+        try {
+            return transactionTemplate().execute(status -> {
+                Ship modifiedShip = repository.findById(longId).orElseThrow(NotFoundException::new);
+                if (expectedVersion != null && !expectedVersion.equals(modifiedShip.getVersion()))
+                    throw new PreconditionFailedException();
+                checkChanges(ship);
+                Ship previous = ShipChangeEvent.copyOf(modifiedShip);
+                applyChanges(modifiedShip, ship);
+                // Версия увеличивается при flush, событие должно нести уже новую
+                Ship saved = repository.saveAndFlush(modifiedShip);
+                eventPublisher.publishEvent(ShipChangeEvent.updated(Collections.singletonList(saved),
+                        Collections.singletonList(previous)));
+                return saved;
+            });
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Корабль изменили между чтением и записью
+            if (expectedVersion != null) throw new PreconditionFailedException();
+            throw new ConflictException();
         }
-        if (ship.getPlanet() != null) {
-            if (ship.getPlanet().length() == 0 || ship.getPlanet().length() > 50) throw new BadRequestException();
-            modifiedShip.setPlanet(ship.getPlanet());
+    }
+
+    @Override
+    public List<BatchItemResult> createShips(List<Ship> ships) {
+        List<BatchItemResult> results = new ArrayList<>(ships.size());
+        List<Ship> valid = new ArrayList<>(ships.size());
+        List<BatchItemResult> validResults = new ArrayList<>(ships.size());
+        for (int i = 0; i < ships.size(); i++) {
+            Ship ship = ships.get(i);
+            try {
+                checkNewShip(ship);
+            } catch (BadRequestException e) {
+                results.add(new BatchItemResult(i, null, HttpStatus.BAD_REQUEST.value()));
+                continue;
+            }
+            prepareNewShip(ship);
+            BatchItemResult result = new BatchItemResult(i, null, HttpStatus.OK.value());
+            results.add(result);
+            valid.add(ship);
+            validResults.add(result);
         }
-        if (ship.getShipType() != null) modifiedShip.setShipType(ship.getShipType());
-        if (ship.getProdDate() != null) {
-            calendar.setTime(ship.getProdDate());
-            if (calendar.get(Calendar.YEAR) < 2800 || calendar.get(Calendar.YEAR) > 3019) throw new BadRequestException();
-            modifiedShip.setProdDate(ship.getProdDate());
+        for (int from = 0; from < valid.size(); from += batchChunkSize) {
+            List<Ship> chunk = valid.subList(from, Math.min(from + batchChunkSize, valid.size()));
+            insertChunk(chunk);
+            for (int i = 0; i < chunk.size(); i++) validResults.get(from + i).setId(chunk.get(i).getId());
+        }
+        return results;
+    }
+
+    @Override
+    public ImportReport importShips(ShipReader reader, Consumer<ImportReport> progress) throws IOException {
+        ImportReport report = new ImportReport();
+        List<Ship> chunk = new ArrayList<>(batchChunkSize);
+        for (long record = 1; ; record++) {
+            Ship ship;
+            try {
+                ship = reader.next();
+                if (ship == null) break;
+                checkNewShip(ship);
+            } catch (BadRequestException e) {
+                report.reject(record, e.getMessage(), importMaxErrors);
+                continue;
+            }
+            prepareNewShip(ship);
+            chunk.add(ship);
+            if (chunk.size() == batchChunkSize) {
+                insertChunk(chunk);
+                report.accept(chunk.size());
+                chunk.clear();
+                progress.accept(report);
+            }
         }
-        if (ship.getSpeed() != null) {
-            if (ship.getSpeed() < 0.01 || ship.getSpeed() > 0.99) throw new BadRequestException();
-            modifiedShip.setSpeed(ship.getSpeed());
+        insertChunk(chunk);
+        report.accept(chunk.size());
+        report.setDone(true);
+        progress.accept(report);
+        return report;
+    }
+
+    @Override
+    public List<BatchItemResult> updateShips(List<Ship> ships) {
+        List<BatchItemResult> results = new ArrayList<>(ships.size());
+        for (int from = 0; from < ships.size(); from += batchChunkSize) {
+            int chunkStart = from;
+            List<Ship> chunk = ships.subList(from, Math.min(from + batchChunkSize, ships.size()));
+            transactionTemplate().execute(status -> {
+                List<Long> ids = new ArrayList<>(chunk.size());
+                for (Ship ship : chunk) if (ship != null && ship.getId() != null) ids.add(ship.getId());
+                Map<Long, Ship> found = new HashMap<>();
+                for (Ship ship : repository.findAllById(ids)) found.put(ship.getId(), ship);
+                List<Ship> applied = new ArrayList<>(chunk.size());
+                Map<Long, Ship> previous = new LinkedHashMap<>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    Ship changes = chunk.get(i);
+                    Long id = changes == null ? null : changes.getId();
+                    if (id == null || id <= 0) {
+                        results.add(new BatchItemResult(chunkStart + i, id, HttpStatus.BAD_REQUEST.value()));
+                    } else if (!found.containsKey(id)) {
+                        results.add(new BatchItemResult(chunkStart + i, id, HttpStatus.NOT_FOUND.value()));
+                    } else {
+                        try {
+                            checkChanges(changes);
+                        } catch (BadRequestException e) {
+                            results.add(new BatchItemResult(chunkStart + i, id, HttpStatus.BAD_REQUEST.value()));
+                            continue;
+                        }
+                        Ship ship = found.get(id);
+                        // При повторе id в пакете снимок до изменения берётся один раз, по первому вхождению
+                        if (!previous.containsKey(id)) {
+                            previous.put(id, ShipChangeEvent.copyOf(ship));
+                            applied.add(ship);
+                        }
+                        applyChanges(ship, changes);
+                        results.add(new BatchItemResult(chunkStart + i, id, HttpStatus.OK.value()));
+                    }
+                }
+                // Версии увеличиваются при flush, событие должно нести уже новые
+                repository.flush();
+                eventPublisher.publishEvent(ShipChangeEvent.updated(applied, previous.values()));
+                return null;
+            });
         }
-        if (ship.getUsed() != null) modifiedShip.setUsed(ship.getUsed());
-        if (ship.getCrewSize() != null) {
-            if (ship.getCrewSize() < 1 || ship.getCrewSize() > 9999) throw new BadRequestException();
-            modifiedShip.setCrewSize(ship.getCrewSize());
+        return results;
+    }
+
+    @Override
+    public List<BatchItemResult> deleteShips(List<Long> ids) {
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += batchChunkSize) {
+            int chunkStart = from;
+            List<Long> chunk = ids.subList(from, Math.min(from + batchChunkSize, ids.size()));
+            transactionTemplate().execute(status -> {
+                List<Long> valid = new ArrayList<>(chunk.size());
+                for (Long id : chunk) if (id != null && id > 0) valid.add(id);
+                List<Ship> ships = repository.findAllById(valid);
+                Set<Long> existing = new HashSet<>(ships.size());
+                for (Ship ship : ships) existing.add(ship.getId());
+                repository.deleteBatch(existing);
+                eventPublisher.publishEvent(ShipChangeEvent.deleted(ships));
+                for (int i = 0; i < chunk.size(); i++) {
+                    Long id = chunk.get(i);
+                    int code = id == null || id <= 0 ? HttpStatus.BAD_REQUEST.value()
+                            : existing.remove(id) ? HttpStatus.OK.value() : HttpStatus.NOT_FOUND.value();
+                    results.add(new BatchItemResult(chunkStart + i, id, code));
+                }
+                return null;
+            });
         }
-        calculateRating(modifiedShip);
-        return repository.save(modifiedShip);
+        return results;
     }
 
     @Override
     public void deleteShip(String id) {
-        Long longId = idStringToLong(id);
-        if (!repository.existsById(longId)) throw new NotFoundException();
-        repository.deleteById(longId);
+        Ship ship;
+        try {
+            ship = transactionTemplate().execute(status -> {
+                Ship found = getShipById(id);
+                repository.delete(found);
+                repository.flush();
+                eventPublisher.publishEvent(ShipChangeEvent.deleted(Collections.singletonList(found)));
+                return found;
+            });
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // Корабль изменили между чтением и удалением
+            throw new ConflictException();
+        }
+    }
+
+    private static void checkNewShip(Ship ship) {
+        if (ship == null) throw new BadRequestException("empty record");
+        if (ship.getName() == null || ship.getPlanet() == null || ship.getShipType() == null
+                ||ship.getProdDate() == null || ship.getSpeed() == null
+                || ship.getCrewSize() == null) throw new BadRequestException("required field is missing");
+        if (ship.getName().length() == 0 || ship.getName().length() > 50)
+            throw new BadRequestException("name must be 1..50 characters");
+        if (ship.getPlanet().length() == 0 || ship.getPlanet().length() > 50)
+            throw new BadRequestException("planet must be 1..50 characters");
+        if (!ProdDates.isValid(ship.getProdDate()))
+            throw new BadRequestException("prodDate year must be " + ProdDates.MIN_YEAR + ".." + ProdDates.MAX_YEAR);
+        if (ship.getSpeed() > 0.99 || ship.getSpeed() < 0.01) throw new BadRequestException("speed must be 0.01..0.99");
+        if (ship.getCrewSize() < 1 || ship.getCrewSize() > 9999) throw new BadRequestException("crewSize must be 1..9999");
+    }
+
+    // Проверяем все поля до изменения, чтобы ошибка не оставила сущность изменённой наполовину
+    private static void checkChanges(Ship ship) {
+        if (ship.getName() != null && (ship.getName().length() == 0 || ship.getName().length() > 50))
+            throw new BadRequestException();
+        if (ship.getPlanet() != null && (ship.getPlanet().length() == 0 || ship.getPlanet().length() > 50))
+            throw new BadRequestException();
+        if (ship.getProdDate() != null && !ProdDates.isValid(ship.getProdDate())) throw new BadRequestException();
+        if (ship.getSpeed() != null && (ship.getSpeed() < 0.01 || ship.getSpeed() > 0.99))
+            throw new BadRequestException();
+        if (ship.getCrewSize() != null && (ship.getCrewSize() < 1 || ship.getCrewSize() > 9999))
+            throw new BadRequestException();
+    }
+
+    private static void applyChanges(Ship modifiedShip, Ship ship) {
+        if (ship.getName() != null) modifiedShip.setName(ship.getName());
+        if (ship.getPlanet() != null) modifiedShip.setPlanet(ship.getPlanet());
+        if (ship.getShipType() != null) modifiedShip.setShipType(ship.getShipType());
+        if (ship.getProdDate() != null) modifiedShip.setProdDate(ship.getProdDate());
+        if (ship.getSpeed() != null) modifiedShip.setSpeed(ship.getSpeed());
+        if (ship.getUsed() != null) modifiedShip.setUsed(ship.getUsed());
+        if (ship.getCrewSize() != null) modifiedShip.setCrewSize(ship.getCrewSize());
+        calculateRating(modifiedShip);
+    }
+
+    private static void prepareNewShip(Ship ship) {
+        ship.setId(null);
+        if (ship.getUsed() == null) ship.setUsed(false);
+        calculateRating(ship);
+    }
+
+    private void insertChunk(List<Ship> chunk) {
+        if (chunk.isEmpty()) return;
+        transactionTemplate().execute(status -> {
+            repository.insertBatch(chunk);
+            eventPublisher.publishEvent(ShipChangeEvent.saved(chunk));
+            return null;
+        });
+    }
+
+    private TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    static void calculateRating(Ship ship) {
+        ship.setRating(Ratings.of(ship.getSpeed(), ship.getUsed(), ProdDates.yearOf(ship.getProdDate())));
+    }
+
+    private Specification<Ship> seekAfter(ShipCursor cursor, ShipOrder shipOrder) {
+        Object value = cursor.getValue();
+        if (shipOrder == ShipOrder.DATE)
+            return ShipSpecifications.seekAfter(shipOrder.getFieldName(), new Date((Long) value), cursor.getId());
+        if (shipOrder == ShipOrder.SPEED || shipOrder == ShipOrder.RATING)
+            return ShipSpecifications.seekAfter(shipOrder.getFieldName(), (Double) value, cursor.getId());
+        return ShipSpecifications.idAfter(cursor.getId());
     }
 
-    private void calculateRating(Ship ship) {
-        calendar.setTime(ship.getProdDate());
-        BigDecimal rating = BigDecimal.valueOf(80 * ship.getSpeed() * (ship.getUsed() ? 0.5 : 1)
-                                                    / (3019 - calendar.get(Calendar.YEAR) + 1));
-        ship.setRating(rating.setScale(2, RoundingMode.HALF_UP).doubleValue());
+    private Sort sortOf(ShipOrder shipOrder) {
+        Sort sort = Sort.by(shipOrder.getFieldName());
+        if (shipOrder != ShipOrder.ID) sort = sort.and(Sort.by(ShipOrder.ID.getFieldName()));
+        return sort;
     }
 
     private Long idStringToLong(String id) {
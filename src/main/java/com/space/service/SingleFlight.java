@@ -0,0 +1,117 @@
+package com.space.service;
+
+import com.space.metrics.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Одинаковые одновременные запросы чтения выполняются один раз: первый считает, остальные ждут его результат.
+// Готовый результат ещё windowMs отдаётся повторным запросам (0 - только пока идёт вычисление).
+// В ключ входит счётчик изменений флота, поэтому после записи через сервис запрос считается заново.
+// Результат общий для всех ждавших, вызывающие его не изменяют
+@Service
+public class SingleFlight {
+
+    @Autowired
+    private FleetVersion fleetVersion;
+
+    @Autowired
+    private Metrics metrics;
+
+    @Value("${coalesce.enabled:true}")
+    private boolean enabled;
+
+    @Value("${coalesce.windowMs:0}")
+    private long windowMs;
+
+    private final ConcurrentHashMap<List<Object>, Flight> flights = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Supplier<T> query, Object... key) {
+        if (!enabled) return query.get();
+        List<Object> flightKey = flightKey(key);
+        while (true) {
+            Flight flight = flights.get(flightKey);
+            if (flight != null) {
+                if (!flight.expired(System.nanoTime())) {
+                    metrics.coalesced(flight.result.isDone() ? "reused" : "joined");
+                    return (T) flight.await();
+                }
+                flights.remove(flightKey, flight);
+                continue;
+            }
+            Flight own = new Flight();
+            if (flights.putIfAbsent(flightKey, own) != null) continue;
+            metrics.coalesced("computed");
+            return (T) own.run(flightKey, query);
+        }
+    }
+
+    // Есть готовый и ещё не устаревший результат такого запроса
+    public boolean hasResult(Object... key) {
+        if (!enabled) return false;
+        Flight flight = flights.get(flightKey(key));
+        return flight != null && flight.result.isDone() && !flight.result.isCompletedExceptionally()
+                && !flight.expired(System.nanoTime());
+    }
+
+    private List<Object> flightKey(Object[] key) {
+        Object[] parts = Arrays.copyOf(key, key.length + 1);
+        parts[key.length] = fleetVersion.changes();
+        return Arrays.asList(parts);
+    }
+
+    private void sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last < TimeUnit.MILLISECONDS.toNanos(windowMs) || !lastSweep.compareAndSet(last, now)) return;
+        flights.values().removeIf(flight -> flight.expired(now));
+    }
+
+    private class Flight {
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile long expires = Long.MAX_VALUE;
+
+        Object run(List<Object> key, Supplier<?> query) {
+            try {
+                Object value = query.get();
+                long now = System.nanoTime();
+                expires = now + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                result.complete(value);
+                if (windowMs <= 0) flights.remove(key, this);
+                else sweep(now);
+                return value;
+            } catch (RuntimeException | Error e) {
+                expires = System.nanoTime();
+                result.completeExceptionally(e);
+                flights.remove(key, this);
+                throw e;
+            }
+        }
+
+        Object await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                // Ждавшие получают то же исключение, что и считавший запрос
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                if (e.getCause() instanceof Error) throw (Error) e.getCause();
+                throw e;
+            }
+        }
+
+        boolean expired(long now) {
+            return result.isDone() && now - expires >= 0;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.space.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Инвертированный индекс триграмм строковой колонки FleetColumns: триграмма -> отсортированные слоты,
+// в значении которых она встречается. Подстрока длиной от трёх символов содержит все свои триграммы,
+// поэтому пересечение их списков даёт надмножество совпадений, которое остаётся только проверить.
+// Значения передаются уже приведёнными к нижнему регистру. Не потокобезопасно
+class TrigramIndex {
+
+    static final int GRAM = 3;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    void replace(int slot, String oldValue, String newValue) {
+        if (oldValue != null && oldValue.equals(newValue)) return;
+        if (oldValue != null) remove(slot, oldValue);
+        if (newValue != null) add(slot, newValue);
+    }
+
+    void add(int slot, String value) {
+        for (int i = 0; i + GRAM <= value.length(); i++)
+            postings.computeIfAbsent(gram(value, i), key -> new Postings()).add(slot);
+    }
+
+    void remove(int slot, String value) {
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            Long key = gram(value, i);
+            Postings list = postings.get(key);
+            if (list != null && list.remove(slot) && list.size == 0) postings.remove(key);
+        }
+    }
+
+    // Кандидаты по возрастанию слота или null, если подстрока короче триграммы и индекс не поможет
+    int[] candidates(String needle) {
+        if (needle.length() < GRAM) return null;
+        int grams = needle.length() - GRAM + 1;
+        Postings[] lists = new Postings[grams];
+        for (int i = 0; i < grams; i++) {
+            lists[i] = postings.get(gram(needle, i));
+            if (lists[i] == null) return new int[0];
+        }
+        // Начинаем с самого короткого списка: дальше работа пропорциональна числу кандидатов
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        int[] result = Arrays.copyOf(lists[0].slots, lists[0].size);
+        int count = result.length;
+        for (int l = 1; l < lists.length && count > 0; l++) {
+            int kept = 0;
+            for (int i = 0; i < count; i++)
+                if (Arrays.binarySearch(lists[l].slots, 0, lists[l].size, result[i]) >= 0) result[kept++] = result[i];
+            count = kept;
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private static long gram(String value, int from) {
+        return ((long) value.charAt(from) << 32) | ((long) value.charAt(from + 1) << 16) | value.charAt(from + 2);
+    }
+
+    // Отсортированный массив слотов; при загрузке слоты идут по возрастанию и просто дописываются в конец
+    private static class Postings {
+
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            if (size > 0 && slots[size - 1] < slot) {
+                append(slot);
+                return;
+            }
+            int position = Arrays.binarySearch(slots, 0, size, slot);
+            if (position >= 0) return;
+            position = -position - 1;
+            if (size == slots.length) slots = Arrays.copyOf(slots, size * 2);
+            System.arraycopy(slots, position, slots, position + 1, size - position);
+            slots[position] = slot;
+            size++;
+        }
+
+        boolean remove(int slot) {
+            int position = Arrays.binarySearch(slots, 0, size, slot);
+            if (position < 0) return false;
+            System.arraycopy(slots, position + 1, slots, position, size - 1 - position);
+            size--;
+            return true;
+        }
+
+        private void append(int slot) {
+            if (size == slots.length) slots = Arrays.copyOf(slots, size * 2);
+            slots[size++] = slot;
+        }
+    }
+}
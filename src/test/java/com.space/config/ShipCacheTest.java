@@ -0,0 +1,163 @@
+package com.space.config;
+
+import com.space.controller.ShipOrder;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.exceptions.NotFoundException;
+import com.space.model.CacheRegionStats;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.service.CacheStatsService;
+import com.space.service.ShipService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {ShipCacheTest.CachedDataSourceConfig.class})
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipCacheTest {
+
+    // Лежит вне сканируемых пакетов, иначе кэш включится и в контекстах остальных тестов
+    @Configuration
+    @Import(CacheConfig.class)
+    static class CachedDataSourceConfig extends TestDataSourceConfig {
+
+        @Autowired
+        private CacheManager jcacheManager;
+
+        @Bean
+        @Override
+        public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
+            LocalContainerEntityManagerFactoryBean em = super.entityManagerFactory();
+            CacheConfig.enableSecondLevelCache(em, jcacheManager);
+            return em;
+        }
+    }
+
+    private ShipService shipService;
+    private CacheStatsService cacheStatsService;
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+
+    @Before
+    public void setup() {
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    //test1
+    @Test
+    public void getShipByIdIsServedFromCache() {
+        shipService.getShipById("5");
+        shipService.getShipById("5");
+        shipService.getShipById("5");
+
+        assertEquals("Корабль должен загружаться из базы только один раз.", 1L, statistics.getEntityLoadCount());
+        assertTrue("Повторные чтения корабля должны попадать в кэш.",
+                statistics.getSecondLevelCacheHitCount() >= 2);
+    }
+
+    //test2
+    @Test
+    public void countAndListQueriesAreCachedAndInvalidatedByCreate() {
+        long count = shipService.countShips(null, "Mars", null, null, null, null, null, null, null, null, null, null);
+        List<Ship> page = shipService.pagedShips(null, "Mars", null, null, null, null, null, null, null, null, null, null,
+                0, 10, ShipOrder.ID);
+        shipService.countShips(null, "Mars", null, null, null, null, null, null, null, null, null, null);
+        shipService.pagedShips(null, "Mars", null, null, null, null, null, null, null, null, null, null, 0, 10, ShipOrder.ID);
+        assertEquals("Повторные запросы должны попадать в кэш запросов.", 2L, statistics.getQueryCacheHitCount());
+
+        shipService.createShip(new Ship("Nova", "Mars", ShipType.MILITARY.name(), new Date(32998274577071L),
+                false, 0.5, 10, null));
+
+        assertEquals("После createShip количество должно обновиться.", count + 1,
+                shipService.countShips(null, "Mars", null, null, null, null, null, null, null, null, null, null));
+        assertEquals("После createShip список должен обновиться.", page.size() + 1,
+                shipService.pagedShips(null, "Mars", null, null, null, null, null, null, null, null, null, null,
+                        0, 10, ShipOrder.ID).size());
+    }
+
+    //test3
+    @Test
+    public void updateShipRefreshesCachedEntityAndQueries() {
+        shipService.getShipById("1");
+        long fast = shipService.countShips(null, null, null, null, null, null, 0.9, null, null, null, null, null);
+
+        Ship patch = new Ship();
+        patch.setName("Renamed");
+        patch.setSpeed(0.95);
+        shipService.updateShip("1", patch);
+
+        assertEquals("После updateShip должен возвращаться новый корабль.", "Renamed", shipService.getShipById("1").getName());
+        assertEquals("После updateShip количество должно обновиться.", fast + 1,
+                shipService.countShips(null, null, null, null, null, null, 0.9, null, null, null, null, null));
+    }
+
+    //test4
+    @Test
+    public void deleteShipEvictsCachedEntityAndQueries() {
+        shipService.getShipById("2");
+        long count = shipService.countShips(null, null, null, null, null, null, null, null, null, null, null, null);
+
+        shipService.deleteShip("2");
+
+        try {
+            shipService.getShipById("2");
+            assertTrue("Удалённый корабль не должен возвращаться из кэша.", false);
+        } catch (NotFoundException expected) {
+        }
+        assertEquals("После deleteShip количество должно обновиться.", count - 1,
+                shipService.countShips(null, null, null, null, null, null, null, null, null, null, null, null));
+    }
+
+    //test5
+    @Test
+    public void cacheStatsReportHitsAndMisses() {
+        shipService.getShipById("3");
+        shipService.getShipById("3");
+
+        CacheRegionStats ship = null;
+        for (CacheRegionStats stats : cacheStatsService.getRegionStats())
+            if (stats.getRegion().equals(CacheConfig.SHIP_REGION)) ship = stats;
+
+        assertTrue("Статистика региона ship должна возвращаться.", ship != null);
+        assertTrue("Статистика должна учитывать промах.", ship.getMisses() >= 1);
+        assertTrue("Статистика должна учитывать попадание.", ship.getHits() >= 1);
+        assertTrue("Статистика должна учитывать запись.", ship.getPuts() >= 1);
+    }
+
+    @Autowired
+    public void setShipService(ShipService shipService) {
+        this.shipService = shipService;
+    }
+
+    @Autowired
+    public void setCacheStatsService(CacheStatsService cacheStatsService) {
+        this.cacheStatsService = cacheStatsService;
+    }
+
+    @Autowired
+    public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,162 @@
+package com.space.config;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.model.Ship;
+import com.space.model.ShipPage;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+public class ShipJsonModuleTest {
+
+    private static final String[] NAMES = {"Orion III", "Дедал", "Quote \" and \\ slash", "Tab\tand\nline", "\u0001",
+            "Emoji 🚀", ""};
+    private static final TypeReference<List<Ship>> SHIP_LIST = new TypeReference<List<Ship>>() {
+    };
+
+    private final ObjectMapper reflective = reflectiveMapper();
+    private final ObjectMapper fast = new WebConfig().objectMapper();
+
+    //test1
+    @Test
+    public void serializationMatchesReflectiveMapperTest() throws Exception {
+        Random random = new Random(11);
+        List<Ship> ships = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) ships.add(randomShip(random));
+        // Hibernate отдаёт prodDate как java.sql.Timestamp
+        ships.get(0).setProdDate(new Timestamp(32503680000123L));
+        ships.get(1).setProdDate(new java.sql.Date(32503680000000L));
+        for (Ship ship : ships)
+            assertEquals("JSON корабля отличается от рефлексивного",
+                    reflective.writeValueAsString(ship), fast.writeValueAsString(ship));
+        assertEquals("JSON списка отличается от рефлексивного",
+                reflective.writeValueAsString(ships), fast.writeValueAsString(ships));
+        ShipPage page = new ShipPage(ships.subList(0, 20), 2000);
+        assertTrue("JSON страницы отличается от рефлексивного",
+                Arrays.equals(reflective.writeValueAsBytes(page), fast.writeValueAsBytes(page)));
+    }
+
+    //test2
+    @Test
+    public void deserializationMatchesReflectiveMapperTest() throws Exception {
+        String[] inputs = {
+                "{}",
+                "{\"id\":7,\"name\":\"Orion\",\"planet\":\"Mars\",\"shipType\":\"MERCHANT\",\"prodDate\":32503680000000,"
+                        + "\"isUsed\":true,\"speed\":0.82,\"crewSize\":617,\"rating\":1.31}",
+                "{\"name\":null,\"planet\":null,\"shipType\":null,\"prodDate\":null,\"isUsed\":null,"
+                        + "\"speed\":null,\"crewSize\":null,\"rating\":null,\"id\":null}",
+                "{\"speed\":\"0.5\",\"crewSize\":\"12\",\"isUsed\":\"true\",\"prodDate\":\"2995-01-01\",\"id\":\"3\"}",
+                "{\"speed\":1,\"rating\":2,\"crewSize\":100.7,\"name\":123,\"planet\":true}",
+                "{\"version\":5,\"unknown\":{\"nested\":[1,2,{\"a\":null}]},\"name\":\"Kept\"}",
+                "{\"name\":\"first\",\"name\":\"second\"}",
+                "{\"prodDate\":\"2995-01-01T10:15:30.000+0000\"}",
+        };
+        for (String input : inputs) {
+            Ship expected = reflective.readValue(input, Ship.class);
+            Ship actual = fast.readValue(input, Ship.class);
+            assertEquals("Разбор отличается от рефлексивного для " + input,
+                    reflective.writeValueAsString(expected), reflective.writeValueAsString(actual));
+            assertEquals("version не должна приниматься из JSON", null, actual.getVersion());
+        }
+        String list = "[" + inputs[1] + "," + inputs[3] + "]";
+        assertEquals("Разбор списка отличается от рефлексивного",
+                reflective.writeValueAsString(reflective.readValue(list, SHIP_LIST)),
+                reflective.writeValueAsString(fast.readValue(list, SHIP_LIST)));
+    }
+
+    //test3
+    @Test
+    public void invalidInputFailsLikeReflectiveMapperTest() {
+        String[] inputs = {
+                "{\"speed\":\"fast\"}",
+                "{\"crewSize\":1e20}",
+                "{\"prodDate\":\"yesterday\"}",
+                "{\"name\":{\"first\":\"a\"}}",
+                "{\"isUsed\":[true]}",
+                "[]",
+                "\"ship\"",
+                "{\"name\":\"unterminated\"",
+        };
+        for (String input : inputs) {
+            assertTrue("Рефлексивный разбор должен падать для " + input, fails(reflective, input));
+            assertTrue("Быстрый разбор должен падать для " + input, fails(fast, input));
+        }
+    }
+
+    //test4
+    @Test
+    public void plainCentsMatchDoubleToStringTest() {
+        for (long cents = -999_999; cents <= 999_999; cents++) {
+            double value = cents / 100.0;
+            assertEquals("Строка числа отличается от Double.toString", Double.toString(value),
+                    ShipJsonModule.ShipSerializer.plainCents(value));
+        }
+        assertEquals("-0.0 должен идти через Double.toString", null, ShipJsonModule.ShipSerializer.plainCents(-0.0));
+        assertEquals("Не сотые должны идти через Double.toString", null,
+                ShipJsonModule.ShipSerializer.plainCents(0.8200000000000001));
+        assertEquals("Большие числа должны идти через Double.toString", null,
+                ShipJsonModule.ShipSerializer.plainCents(10000.0));
+    }
+
+    private static boolean fails(ObjectMapper mapper, String input) {
+        try {
+            mapper.readValue(input, Ship.class);
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static Ship randomShip(Random random) {
+        Ship ship = new Ship(
+                random.nextInt(8) == 0 ? null : NAMES[random.nextInt(NAMES.length)],
+                random.nextInt(8) == 0 ? null : NAMES[random.nextInt(NAMES.length)],
+                random.nextInt(8) == 0 ? null : "MILITARY",
+                random.nextInt(8) == 0 ? null : new Date(random.nextLong() >> 20),
+                random.nextInt(8) == 0 ? null : random.nextBoolean(),
+                random.nextInt(8) == 0 ? null : randomDouble(random),
+                random.nextInt(8) == 0 ? null : random.nextInt(),
+                random.nextInt(8) == 0 ? null : randomDouble(random));
+        ship.setId(random.nextInt(8) == 0 ? null : random.nextLong());
+        ship.setVersion(random.nextLong());
+        return ship;
+    }
+
+    private static double randomDouble(Random random) {
+        switch (random.nextInt(6)) {
+            case 0:
+                return (1 + random.nextInt(99)) / 100.0;
+            case 1:
+                return random.nextDouble() * 1e-7;
+            case 2:
+                return random.nextDouble() * 1e21;
+            case 3:
+                return -random.nextDouble();
+            case 4:
+                return random.nextInt(3) == 0 ? Double.NaN : Double.POSITIVE_INFINITY;
+            default:
+                return Math.round(random.nextDouble() * 1000) / 100.0;
+        }
+    }
+
+    // Настройки WebConfig.objectMapper() до появления ShipJsonModule
+    private static ObjectMapper reflectiveMapper() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        return objectMapper;
+    }
+}
@@ -0,0 +1,104 @@
+package com.space.controller;
+
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.service.QueryExecutors;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@TestPropertySource(properties = {"async.count.threads=1", "async.count.queueSize=1"})
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class AsyncRequestTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void countRunsOnQueryExecutorTest() throws Exception {
+        MvcResult started = mockMvc.perform(get("/rest/ships/count")).andReturn();
+        assertTrue("Запрос count должен обрабатываться асинхронно", started.getRequest().isAsyncStarted());
+        ResponseEntity<?> count = (ResponseEntity<?>) started.getAsyncResult(TimeUnit.SECONDS.toMillis(10));
+        assertEquals("Неверное количество кораблей", 40L, count.getBody());
+
+        String metrics = mockMvc.perform(get("/rest/metrics")).andReturn().getResponse().getContentAsString();
+        assertTrue("Нет метрик загрузки пула count",
+                metrics.contains("cosmoport_executor_max_threads{executor=\"count\"} 1\n")
+                        && metrics.contains("cosmoport_executor_queue_capacity{executor=\"count\"} 1\n"));
+    }
+
+    //test2
+    @Test
+    public void saturatedExecutorRejectsOnlyItsEndpointTest() throws Exception {
+        QueryExecutors executors = context.getBean(QueryExecutors.class);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        // Единственный поток занят, единственное место в очереди тоже
+        CompletableFuture<Object> busy = executors.submit(QueryExecutors.COUNT, () -> {
+            running.countDown();
+            return await(release);
+        });
+        CompletableFuture<Object> queued = executors.submit(QueryExecutors.COUNT, () -> await(release));
+        try {
+            assertTrue("Задача не запустилась", running.await(10, TimeUnit.SECONDS));
+            mockMvc.perform(get("/rest/ships/count")).andExpect(status().isServiceUnavailable());
+
+            TestsHelper.perform(mockMvc, get("/rest/ships?pageSize=2")).andExpect(status().isOk());
+            mockMvc.perform(get("/rest/ships/1")).andExpect(status().isOk());
+            String metrics = mockMvc.perform(get("/rest/metrics")).andReturn().getResponse().getContentAsString();
+            assertTrue("Отказ не учтён в метриках",
+                    !metrics.contains("cosmoport_executor_rejected_tasks_total{executor=\"count\"} 0\n"));
+        } finally {
+            release.countDown();
+            busy.get(10, TimeUnit.SECONDS);
+            queued.get(10, TimeUnit.SECONDS);
+        }
+        TestsHelper.perform(mockMvc, get("/rest/ships/count")).andExpect(status().isOk());
+    }
+
+    private static Object await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
@@ -0,0 +1,120 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.BatchItemResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class BatchShipTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void createShipsReportsInvalidEntriesTest() throws Exception {
+        String body = "[{\"name\":\"Batch 1\",\"planet\":\"Mars\",\"shipType\":\"MILITARY\",\"prodDate\":32945443200000,\"speed\":0.5,\"crewSize\":100},"
+                + "{\"name\":\"\",\"planet\":\"Mars\",\"shipType\":\"MILITARY\",\"prodDate\":32945443200000,\"speed\":0.5,\"crewSize\":100},"
+                + "{\"name\":\"Batch 3\",\"planet\":\"Earth\",\"shipType\":\"TRANSPORT\",\"prodDate\":32945443200000,\"isUsed\":true,\"speed\":0.3,\"crewSize\":10}]";
+
+        List<BatchItemResult> results = perform("/rest/ships/batch", body);
+
+        assertEquals("Неверное количество результатов POST /rest/ships/batch", 3, results.size());
+        assertEquals("Корректный корабль должен быть создан", 200, results.get(0).getStatus());
+        assertEquals("Корабль с пустым именем должен быть отклонён", 400, results.get(1).getStatus());
+        assertEquals("Корректный корабль должен быть создан", 200, results.get(2).getStatus());
+        assertTrue("Созданным кораблям должны быть назначены разные ID",
+                results.get(0).getId() != null && results.get(2).getId() != null
+                        && !results.get(0).getId().equals(results.get(2).getId()));
+
+        String created = mockMvc.perform(get("/rest/ships/" + results.get(2).getId()))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertTrue("Рейтинг созданного пакетом корабля посчитан неверно", created.contains("\"rating\":2.0"));
+        String count = TestsHelper.perform(mockMvc, get("/rest/ships/count")).andReturn().getResponse().getContentAsString();
+        assertEquals("Количество кораблей после пакетного создания неверно", "42", count);
+    }
+
+    //test2
+    @Test
+    public void updateShipsReportsMissingAndInvalidEntriesTest() throws Exception {
+        String body = "[{\"id\":14,\"name\":\"Renamed\",\"isUsed\":true},"
+                + "{\"id\":15,\"speed\":1.5},"
+                + "{\"id\":410,\"name\":\"Ghost\"},"
+                + "{\"name\":\"No id\"}]";
+
+        List<BatchItemResult> results = perform("/rest/ships/batch/update", body);
+
+        assertEquals("Корректное изменение должно пройти", 200, results.get(0).getStatus());
+        assertEquals("Недопустимая скорость должна быть отклонена", 400, results.get(1).getStatus());
+        assertEquals("Несуществующий корабль должен вернуть 404", 404, results.get(2).getStatus());
+        assertEquals("Изменение без ID должно быть отклонено", 400, results.get(3).getStatus());
+
+        String updated = mockMvc.perform(get("/rest/ships/14")).andReturn().getResponse().getContentAsString();
+        assertTrue("Изменение пакетом не сохранилось", updated.contains("\"name\":\"Renamed\"") && updated.contains("\"isUsed\":true"));
+        String rejected = mockMvc.perform(get("/rest/ships/15")).andReturn().getResponse().getContentAsString();
+        assertTrue("Отклонённое изменение не должно сохраняться", !rejected.contains("\"speed\":1.5"));
+    }
+
+    //test3
+    @Test
+    public void deleteShipsReportsMissingEntriesTest() throws Exception {
+        List<BatchItemResult> results = perform("/rest/ships/batch/delete", "[1, 2, 426, 0]");
+
+        assertEquals("Существующий корабль должен быть удалён", 200, results.get(0).getStatus());
+        assertEquals("Существующий корабль должен быть удалён", 200, results.get(1).getStatus());
+        assertEquals("Несуществующий корабль должен вернуть 404", 404, results.get(2).getStatus());
+        assertEquals("Недопустимый ID должен вернуть 400", 400, results.get(3).getStatus());
+
+        mockMvc.perform(get("/rest/ships/1")).andExpect(status().isNotFound());
+        String count = TestsHelper.perform(mockMvc, get("/rest/ships/count")).andReturn().getResponse().getContentAsString();
+        assertEquals("Количество кораблей после пакетного удаления неверно", "38", count);
+    }
+
+    private List<BatchItemResult> perform(String url, String body) throws Exception {
+        String content = mockMvc.perform(post(url)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(body)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return new ObjectMapper().readValue(content, new TypeReference<List<BatchItemResult>>() {});
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
@@ -0,0 +1,142 @@
+package com.space.controller;
+
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ConditionalGetTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void getShipNotModifiedTest() throws Exception {
+        String etag = mockMvc.perform(get("/rest/ships/14"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue("Нет заголовка ETag в ответе GET /rest/ships/{id}", etag != null);
+
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships/14")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse();
+        assertEquals("Ответ 304 не должен содержать тело", "", response.getContentAsString());
+    }
+
+    //test2
+    @Test
+    public void updateChangesShipEtagTest() throws Exception {
+        String etag = mockMvc.perform(get("/rest/ships/14"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String newEtag = mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.IF_MATCH, etag)
+                .content("{\"name\":\"Conditional\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue("ETag не изменился после обновления", newEtag != null && !newEtag.equals(etag));
+
+        mockMvc.perform(get("/rest/ships/14")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships/14")
+                .header(HttpHeaders.IF_NONE_MATCH, newEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    //test3
+    @Test
+    public void updateWithStaleIfMatchTest() throws Exception {
+        String etag = mockMvc.perform(get("/rest/ships/14"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.IF_MATCH, etag)
+                .content("{\"name\":\"First\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.IF_MATCH, etag)
+                .content("{\"name\":\"Second\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.IF_MATCH, "W/" + etag)
+                .content("{\"name\":\"Second\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        String name = mockMvc.perform(get("/rest/ships/14"))
+                .andReturn().getResponse().getContentAsString();
+        assertTrue("Обновление с устаревшим If-Match не должно применяться", name.contains("\"First\""));
+    }
+
+    //test4
+    @Test
+    public void listAndCountNotModifiedUntilWriteTest() throws Exception {
+        String listEtag = TestsHelper.perform(mockMvc, get("/rest/ships?pageSize=5"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String countEtag = TestsHelper.perform(mockMvc, get("/rest/ships/count"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue("Нет заголовка ETag в ответах списка и количества", listEtag != null && countEtag != null);
+
+        TestsHelper.perform(mockMvc, get("/rest/ships?pageSize=5")
+                .header(HttpHeaders.IF_NONE_MATCH, listEtag))
+                .andExpect(status().isNotModified());
+        TestsHelper.perform(mockMvc, get("/rest/ships/count")
+                .header(HttpHeaders.IF_NONE_MATCH, countEtag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\":0.5}"))
+                .andExpect(status().isOk());
+
+        TestsHelper.perform(mockMvc, get("/rest/ships?pageSize=5")
+                .header(HttpHeaders.IF_NONE_MATCH, listEtag))
+                .andExpect(status().isOk());
+        TestsHelper.perform(mockMvc, get("/rest/ships/count")
+                .header(HttpHeaders.IF_NONE_MATCH, countEtag))
+                .andExpect(status().isOk());
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
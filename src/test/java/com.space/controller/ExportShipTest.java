@@ -0,0 +1,137 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ImportReport;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ExportShipTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void exportNdJsonMatchesFilteredListTest() throws Exception {
+        MvcResult result = TestsHelper.perform(mockMvc, get("/rest/ships/export?planet=Mars&order=SPEED"))
+                .andExpect(status().isOk()).andReturn();
+        assertTrue("Неверный Content-Type у NDJSON-выгрузки",
+                result.getResponse().getContentType().startsWith("application/x-ndjson"));
+
+        ObjectMapper mapper = new ObjectMapper();
+        List<ShipInfoTest> exported = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().split("\n"))
+            exported.add(mapper.readValue(line, ShipInfoTest.class));
+
+        String page = TestsHelper.perform(mockMvc, get("/rest/ships?planet=Mars&order=SPEED&pageSize=100"))
+                .andReturn().getResponse().getContentAsString();
+        List<ShipInfoTest> expected = mapper.readValue(page,
+                mapper.getTypeFactory().constructCollectionType(List.class, ShipInfoTest.class));
+        assertTrue("Выгрузка не должна быть пустой", !expected.isEmpty());
+        assertEquals("NDJSON-выгрузка не совпадает с GET /rest/ships", expected, exported);
+    }
+
+    //test2
+    @Test
+    public void exportCsvTest() throws Exception {
+        MvcResult result = TestsHelper.perform(mockMvc, get("/rest/ships/export?format=CSV"))
+                .andExpect(status().isOk()).andReturn();
+        assertTrue("Неверный Content-Type у CSV-выгрузки", result.getResponse().getContentType().startsWith("text/csv"));
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals("Неверный заголовок CSV", "id,name,planet,shipType,prodDate,isUsed,speed,crewSize,rating", lines[0]);
+        assertEquals("В CSV должны попасть все корабли", 41, lines.length);
+        assertTrue("Неверная первая строка CSV", lines[1].startsWith("1,Orion III,Mars,MERCHANT,"));
+    }
+
+    //test3
+    @Test
+    public void exportUnknownFormatTest() throws Exception {
+        TestsHelper.perform(mockMvc, get("/rest/ships/export?format=XML"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test4
+    @Test
+    public void exportNdJsonLinesAreBareObjectsTest() throws Exception {
+        byte[] body = TestsHelper.perform(mockMvc, get("/rest/ships/export"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+        String content = new String(body, StandardCharsets.UTF_8);
+        assertTrue("Каждая строка NDJSON должна заканчиваться переводом строки", content.endsWith("}\n"));
+        String[] lines = content.split("\n");
+        assertEquals("В выгрузку должны попасть все корабли", 40, lines.length);
+        for (String line : lines)
+            assertTrue("Строка NDJSON должна быть объектом без лишних пробелов: '" + line + "'",
+                    line.startsWith("{\"") && line.endsWith("}"));
+    }
+
+    //test5
+    @Test
+    public void exportCsvWithNullColumnsTest() throws Exception {
+        JdbcTemplate jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbc.update("INSERT INTO ship (name, planet, shipType) VALUES ('Empty Hull', 'Mars', 'MILITARY')");
+
+        String[] lines = TestsHelper.perform(mockMvc, get("/rest/ships/export?format=CSV"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals("В CSV должны попасть все корабли", 42, lines.length);
+        assertTrue("Пустые колонки должны выгружаться пустыми полями: " + lines[41],
+                lines[41].endsWith(",Empty Hull,Mars,MILITARY,,,,,"));
+    }
+
+    //test6
+    @Test
+    public void exportCsvImportsBackTest() throws Exception {
+        JdbcTemplate jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbc.update("UPDATE ship SET isUsed = NULL, rating = NULL WHERE id IN (1, 2)");
+
+        byte[] csv = TestsHelper.perform(mockMvc, get("/rest/ships/export?format=CSV"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+        String[] report = mockMvc.perform(post("/rest/ships/import?format=CSV").content(csv))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString().split("\n");
+        ImportReport imported = new ObjectMapper().readValue(report[report.length - 1], ImportReport.class);
+        assertEquals("Выгрузка CSV должна загружаться обратно целиком", 40L, imported.getAccepted());
+        assertEquals("Выгрузка CSV не должна давать отклонённых записей", 0L, imported.getRejected());
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
@@ -24,6 +24,8 @@ import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.springframework.test.util.AssertionErrors.assertTrue;
@@ -52,7 +54,7 @@ public class GetAllTest {
     //test1
     @Test
     public void getAllWithoutFiltersReturnAllShips() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/ships")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -68,7 +70,7 @@ public class GetAllTest {
     //test2
     @Test
     public void getAllWithFiltersNamePageNumber() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/ships?name=ra&pageNumber=1")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships?name=ra&pageNumber=1")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -85,7 +87,7 @@ public class GetAllTest {
     //test3
     @Test
     public void getAllWithFiltersPlanetPageSize() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/ships?planet=ur&pageSize=4")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships?planet=ur&pageSize=4")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -104,7 +106,7 @@ public class GetAllTest {
     public void getAllWithFiltersShipTypeAfterBefore() throws Exception {
         //after 00:00 01.01.3000
         //before 00:00 01.01.3011
-        ResultActions resultActions = mockMvc.perform(get("/rest/ships?shipType=MILITARY&after=32503672800000&before=32850741600000")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships?shipType=MILITARY&after=32503672800000&before=32850741600000")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -124,7 +126,7 @@ public class GetAllTest {
     //test5
     @Test
     public void getAllWithFiltersShipTypeMinSpeedMaxSpeed() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/ships?shipType=TRANSPORT&minSpeed=0.3&maxSpeed=0.6")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships?shipType=TRANSPORT&minSpeed=0.3&maxSpeed=0.6")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -144,7 +146,7 @@ public class GetAllTest {
     //test6
     @Test
     public void getAllWithFiltersShipTypeMinCrewSizeMaxCrewSize() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/ships?shipType=MERCHANT&minCrewSize=10&maxCrewSize=1000")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships?shipType=MERCHANT&minCrewSize=10&maxCrewSize=1000")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -164,7 +166,7 @@ public class GetAllTest {
     //test7
     @Test
     public void getAllWithFiltersIsUsedMinMaxRating() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/ships?isUsed=true&minRating=2&maxRating=4")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships?isUsed=true&minRating=2&maxRating=4")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -184,7 +186,7 @@ public class GetAllTest {
     //test8
     @Test
     public void getAllWithFiltersIsUsedMaxSpeedMaxRating() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/ships?isUsed=false&maxSpeed=0.6&maxRating=7")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships?isUsed=false&maxSpeed=0.6&maxRating=7")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -204,7 +206,7 @@ public class GetAllTest {
     //test9
     @Test
     public void getAllWithFiltersNameOrderSpeed() throws Exception {
-        ResultActions resultActions = mockMvc.perform(get("/rest/ships?name=ca&order=SPEED")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships?name=ca&order=SPEED")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -225,7 +227,7 @@ public class GetAllTest {
     public void getAllWithFiltersAfterBeforeMinCrewMaxCrew() throws Exception {
         //after 00:00 01.01.2996
         //before 00:00 01.01.3009
-        ResultActions resultActions = mockMvc.perform(get("/rest/ships?after=32377442400000&before=32787669600000&minCrewSize=20&maxCrewSize=1500&pageNumber=1")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships?after=32377442400000&before=32787669600000&minCrewSize=20&maxCrewSize=1500&pageNumber=1")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -243,6 +245,73 @@ public class GetAllTest {
         assertTrue("Возвращается не правильный результат при запросе GET /rest/ships с параметрами after, before, minCrewSize и maxCrewSize.", actual.equals(expected));
     }
 
+    //test11
+    @Test
+    public void getAllWithFiltersNameIgnoreCaseAndWildcards() throws Exception {
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships?name=STAR&pageSize=40")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        List<ShipInfoTest> actual = mapper.readValue(resultActions.andReturn().getResponse().getContentAsString(), typeReference);
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByName("Star", testsHelper.getAllShips());
+        expected.addAll(testsHelper.getShipInfosByName("star", testsHelper.getAllShips()));
+        expected = testsHelper.getShipInfosByOrder(ShipOrder.ID, expected);
+
+        assertTrue("Фильтр name должен быть нечувствителен к регистру.", actual.equals(expected));
+
+        resultActions = TestsHelper.perform(mockMvc, get("/rest/ships?name=%25&planet=_")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        actual = mapper.readValue(resultActions.andReturn().getResponse().getContentAsString(), typeReference);
+        assertTrue("Символы % и _ в фильтрах name и planet должны сравниваться буквально.", actual.isEmpty());
+    }
+
+    //test12
+    @Test
+    public void getAllOrderDateKeepsIdOrderForEqualDates() throws Exception {
+        //after 01.07.3009
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships?after=32803315200000&order=DATE&pageNumber=1&pageSize=4")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        List<ShipInfoTest> actual = mapper.readValue(resultActions.andReturn().getResponse().getContentAsString(), typeReference);
+        List<Long> actualIds = new ArrayList<>();
+        for (ShipInfoTest ship : actual) actualIds.add(ship.id);
+
+        assertTrue("Корабли с одинаковой датой выпуска должны сортироваться по id.",
+                actualIds.equals(Arrays.asList(5L, 10L, 11L, 16L)));
+    }
+
+    //test13
+    @Test
+    public void getAllWithCursorWalksSamePagesAsPageNumber() throws Exception {
+        for (ShipOrder order : ShipOrder.values()) {
+            String cursor = "";
+            for (int pageNumber = 0; cursor != null; pageNumber++) {
+                MvcResult byCursor = TestsHelper.perform(mockMvc, get("/rest/ships?isUsed=false&pageSize=4&order=" + order + "&cursor=" + cursor)
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                        .andExpect(status().isOk())
+                        .andReturn();
+                MvcResult byPage = TestsHelper.perform(mockMvc, get("/rest/ships?isUsed=false&pageSize=4&order=" + order + "&pageNumber=" + pageNumber)
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                        .andExpect(status().isOk())
+                        .andReturn();
+
+                List<ShipInfoTest> actual = mapper.readValue(byCursor.getResponse().getContentAsString(), typeReference);
+                List<ShipInfoTest> expected = mapper.readValue(byPage.getResponse().getContentAsString(), typeReference);
+                assertTrue("Страница по cursor не совпадает со страницей по pageNumber при order=" + order + ".", actual.equals(expected));
+
+                cursor = byCursor.getResponse().getHeader(Controller.NEXT_CURSOR_HEADER);
+                if (cursor == null)
+                    assertTrue("Заголовок " + Controller.NEXT_CURSOR_HEADER + " отсутствует до последней страницы.", actual.size() < 4);
+            }
+        }
+
+        TestsHelper.perform(mockMvc, get("/rest/ships?cursor=garbage").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+    }
+
     @Autowired
     public void setContext(WebApplicationContext context) {
         this.context = context;
@@ -45,7 +45,7 @@ public class GetCountTest {
     //test1
     @Test
     public void getCountWithoutFiltersReturnAllShips() throws Exception {
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/ships/count")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships/count")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -60,7 +60,7 @@ public class GetCountTest {
     //test2
     @Test
     public void getCountWithFiltersMinRatingMinCrewSizeMinSpeed() throws Exception {
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/ships/count?minRating=0.5&minCrewSize=100&minSpeed=0.3")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships/count?minRating=0.5&minCrewSize=100&minSpeed=0.3")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -79,7 +79,7 @@ public class GetCountTest {
     @Test
     public void getCountWithFiltersNameAfterMaxRating() throws Exception {
         //after 00:00 01/01/2900
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/ships/count?name=nt&after=32188140000000&maxRating=3")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships/count?name=nt&after=32188140000000&maxRating=3")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -97,7 +97,7 @@ public class GetCountTest {
     //test4
     @Test
     public void getCountWithFiltersShipTypeIsUsed() throws Exception {
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/ships/count?shipType=MERCHANT&isUsed=true")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships/count?shipType=MERCHANT&isUsed=true")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -115,7 +115,7 @@ public class GetCountTest {
     //test5
     @Test
     public void getCountWithFiltersShipTypeMaxCrewSize() throws Exception {
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/ships/count?shipType=MILITARY&maxCrewSize=400")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships/count?shipType=MILITARY&maxCrewSize=400")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -132,7 +132,7 @@ public class GetCountTest {
     //test6
     @Test
     public void getCountWithFiltersPlanet() throws Exception {
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/ships/count?planet=us")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships/count?planet=us")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -148,7 +148,7 @@ public class GetCountTest {
     @Test
     public void getCountWithFiltersShipTypeBeforeMaxSpeed() throws Exception {
         //before 00:00 01/01/3015
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/ships/count?shipType=TRANSPORT&before=32976972000000&maxSpeed=0.7")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships/count?shipType=TRANSPORT&before=32976972000000&maxSpeed=0.7")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
@@ -166,7 +166,7 @@ public class GetCountTest {
     //test8
     @Test
     public void getCountWithFiltersIsUsedMinMaxSpeed() throws Exception {
-        ResultActions resultActions = this.mockMvc.perform(get("/rest/ships/count?isUsed=false&minSpeed=0.3&maxSpeed=0.6")
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships/count?isUsed=false&minSpeed=0.3&maxSpeed=0.6")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isOk());
 
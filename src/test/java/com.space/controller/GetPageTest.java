@@ -0,0 +1,108 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class GetPageTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private TypeReference<List<ShipInfoTest>> typeReference = new TypeReference<List<ShipInfoTest>>() {
+    };
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void getPageWithoutFiltersReturnsFirstPageAndCount() throws Exception {
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships/page")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        JsonNode page = mapper.readTree(result.getResponse().getContentAsString());
+        List<ShipInfoTest> actual = mapper.convertValue(page.get("ships"), typeReference);
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 3, testsHelper.getAllShips());
+
+        assertTrue("Возвращается не правильный список кораблей при запросе GET /rest/ships/page.", actual.equals(expected));
+        assertTrue("Возвращается не правильное количество кораблей при запросе GET /rest/ships/page.",
+                page.get("count").asInt() == testsHelper.getAllShips().size());
+    }
+
+    //test2
+    @Test
+    public void getPageWithFiltersMatchesListAndCount() throws Exception {
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships/page?shipType=MILITARY&maxSpeed=0.9&order=RATING&pageNumber=1&pageSize=4")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        MvcResult result = resultActions.andReturn();
+        JsonNode page = mapper.readTree(result.getResponse().getContentAsString());
+        List<ShipInfoTest> actual = mapper.convertValue(page.get("ships"), typeReference);
+        List<ShipInfoTest> filtered = testsHelper.getShipInfosByShipType(ShipType.MILITARY,
+                testsHelper.getShipInfosByMaxSpeed(0.9, testsHelper.getAllShips()));
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(1, 4,
+                testsHelper.getShipInfosByOrder(ShipOrder.RATING, filtered));
+
+        assertTrue("Возвращается не правильный список кораблей при запросе GET /rest/ships/page с параметрами shipType, maxSpeed, order, pageNumber и pageSize.", actual.equals(expected));
+        assertTrue("Возвращается не правильное количество кораблей при запросе GET /rest/ships/page с параметрами shipType и maxSpeed.",
+                page.get("count").asInt() == filtered.size());
+    }
+
+    //test3
+    @Test
+    public void getPageWithZeroPageSizeReturnsOnlyCount() throws Exception {
+        ResultActions resultActions = TestsHelper.perform(mockMvc, get("/rest/ships/page?isUsed=true&pageSize=0")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        JsonNode page = mapper.readTree(resultActions.andReturn().getResponse().getContentAsString());
+
+        assertTrue("При pageSize=0 список кораблей должен быть пустым.", page.get("ships").size() == 0);
+        assertTrue("При pageSize=0 должно возвращаться количество кораблей.",
+                page.get("count").asInt() == testsHelper.getShipInfosByIsUsed(true, testsHelper.getAllShips()).size());
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
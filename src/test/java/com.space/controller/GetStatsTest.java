@@ -0,0 +1,130 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.FleetStats;
+import com.space.model.ShipType;
+import com.space.model.ValueStats;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class GetStatsTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void statsWithoutFiltersTest() throws Exception {
+        assertStats(stats("/rest/ships/stats"), testsHelper.getAllShips());
+    }
+
+    //test2
+    @Test
+    public void statsWithFiltersTest() throws Exception {
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByMinSpeed(0.5,
+                testsHelper.getShipInfosByShipType(ShipType.MILITARY, testsHelper.getAllShips()));
+        assertStats(stats("/rest/ships/stats?shipType=MILITARY&minSpeed=0.5"), expected);
+    }
+
+    //test3
+    @Test
+    public void statsOfEmptySelectionTest() throws Exception {
+        FleetStats stats = stats("/rest/ships/stats?name=no-such-ship");
+        assertEquals("Неверное количество кораблей", 0L, stats.getCount());
+        assertTrue("Для пустой выборки агрегатов значений быть не должно",
+                stats.getSpeed() == null && stats.getCrewSize() == null && stats.getRating() == null
+                        && stats.getProdYears().isEmpty());
+    }
+
+    private FleetStats stats(String url) throws Exception {
+        String json = TestsHelper.perform(mockMvc, get(url)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, FleetStats.class);
+    }
+
+    private static void assertStats(FleetStats actual, List<ShipInfoTest> ships) {
+        assertEquals("Неверное количество кораблей", (long) ships.size(), actual.getCount());
+        for (ShipType type : ShipType.values())
+            assertEquals("Неверное количество " + type, ships.stream().filter(s -> s.shipType == type).count(),
+                    actual.getByType().get(type.name()));
+        Map<String, Long> planets = new TreeMap<>();
+        for (ShipInfoTest ship : ships) planets.merge(ship.planet, 1L, Long::sum);
+        assertEquals("Неверное количество по планетам", planets, actual.getByPlanet());
+        assertEquals("Неверное количество использованных", ships.stream().filter(s -> s.isUsed).count(),
+                actual.getUsed());
+        assertEquals("Неверное количество новых", ships.stream().filter(s -> !s.isUsed).count(), actual.getUnused());
+        assertValues("speed", actual.getSpeed(), ships, s -> s.speed);
+        assertValues("crewSize", actual.getCrewSize(), ships, s -> (double) s.crewSize);
+        assertValues("rating", actual.getRating(), ships, s -> s.rating);
+
+        Map<Integer, Long> years = new TreeMap<>();
+        for (ShipInfoTest ship : ships)
+            years.merge(Instant.ofEpochMilli(ship.prodDate).atZone(ZoneId.systemDefault()).getYear(), 1L, Long::sum);
+        assertEquals("Неверная гистограмма по годам", years, actual.getProdYears());
+    }
+
+    private static void assertValues(String field, ValueStats actual, List<ShipInfoTest> ships,
+                                     Function<ShipInfoTest, Double> value) {
+        List<Double> values = new ArrayList<>();
+        for (ShipInfoTest ship : ships) values.add(value.apply(ship));
+        Collections.sort(values);
+        double sum = 0;
+        for (double v : values) sum += v;
+        assertEquals("Неверный минимум " + field, values.get(0), actual.getMin());
+        assertEquals("Неверный максимум " + field, values.get(values.size() - 1), actual.getMax());
+        assertTrue("Неверное среднее " + field, Math.abs(sum / values.size() - actual.getAvg()) < 1e-4);
+        assertEquals("Неверная медиана " + field, rank(values, 0.5), actual.getP50());
+        assertEquals("Неверный 90-й перцентиль " + field, rank(values, 0.9), actual.getP90());
+        assertEquals("Неверный 99-й перцентиль " + field, rank(values, 0.99), actual.getP99());
+    }
+
+    private static double rank(List<Double> sorted, double q) {
+        return sorted.get((int) Math.ceil(q * sorted.size()) - 1);
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
@@ -0,0 +1,131 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ImportReport;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ImportShipTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void importNdJsonReportsRejectedRecordsTest() throws Exception {
+        String body = "{\"name\":\"Import 1\",\"planet\":\"Mars\",\"shipType\":\"MILITARY\",\"prodDate\":32945443200000,\"speed\":0.5,\"crewSize\":100}\n"
+                + "{\"name\":\"Broken\",\n"
+                + "\n"
+                + "{\"name\":\"Import 2\",\"planet\":\"Earth\",\"shipType\":\"TRANSPORT\",\"prodDate\":32945443200000,\"isUsed\":true,\"speed\":0.3,\"crewSize\":10}\n"
+                + "{\"name\":\"Too old\",\"planet\":\"Earth\",\"shipType\":\"TRANSPORT\",\"prodDate\":0,\"speed\":0.3,\"crewSize\":10}\n"
+                + "{\"name\":\"Import 3\",\"planet\":\"Venus\",\"shipType\":\"MERCHANT\",\"prodDate\":32945443200000,\"speed\":0.9,\"crewSize\":9999}";
+
+        ImportReport report = importBody("/rest/ships/import", body);
+
+        assertTrue("Импорт должен завершиться", report.isDone());
+        assertEquals("Неверное количество принятых записей", 3L, report.getAccepted());
+        assertEquals("Неверное количество отклонённых записей", 2L, report.getRejected());
+        assertEquals("Неверный номер испорченной записи", 2L, report.getErrors().get(0).getRecord());
+        assertEquals("Неверный номер записи с недопустимым годом", 4L, report.getErrors().get(1).getRecord());
+        assertTrue("В ошибке должна быть указана причина", report.getErrors().get(1).getMessage().contains("prodDate"));
+
+        String count = TestsHelper.perform(mockMvc, get("/rest/ships/count")).andReturn().getResponse().getContentAsString();
+        assertEquals("Количество кораблей после импорта неверно", "43", count);
+        String imported = TestsHelper.perform(mockMvc, get("/rest/ships?name=Import 2")).andReturn().getResponse().getContentAsString();
+        assertTrue("Рейтинг импортированного корабля посчитан неверно", imported.contains("\"rating\":2.0"));
+    }
+
+    //test2
+    @Test
+    public void importCsvTest() throws Exception {
+        String body = "crewSize,name,planet,shipType,prodDate,isUsed,speed\r\n"
+                + "12,\"Hope, \"\"Second\"\"\",Mars,MERCHANT,32945443200000,false,0.5\r\n"
+                + "0,Nobody,Mars,MERCHANT,32945443200000,false,0.5\r\n"
+                + "12,Fast,Mars,MERCHANT,32945443200000,,abc\r\n";
+
+        ImportReport report = importBody("/rest/ships/import?format=CSV", body);
+
+        assertEquals("Неверное количество принятых записей", 1L, report.getAccepted());
+        assertEquals("Неверное количество отклонённых записей", 2L, report.getRejected());
+        String imported = TestsHelper.perform(mockMvc, get("/rest/ships?name=Second")).andReturn().getResponse().getContentAsString();
+        assertTrue("Поле CSV в кавычках разобрано неверно", imported.contains("\"name\":\"Hope, \\\"Second\\\"\""));
+    }
+
+    //test3
+    @Test
+    public void importCsvRejectsMalformedIsUsedTest() throws Exception {
+        String body = "name,planet,shipType,prodDate,isUsed,speed,crewSize\n"
+                + "Yes Ship,Mars,MERCHANT,32945443200000,yes,0.5,12\n"
+                + "One Ship,Mars,MERCHANT,32945443200000,1,0.5,12\n"
+                + "Upper Ship,Mars,MERCHANT,32945443200000,TRUE,0.5,12\n";
+
+        ImportReport report = importBody("/rest/ships/import?format=CSV", body);
+
+        assertEquals("Неверное количество принятых записей", 1L, report.getAccepted());
+        assertEquals("Неверное количество отклонённых записей", 2L, report.getRejected());
+        assertTrue("В ошибке должна быть указана причина", report.getErrors().get(0).getMessage().contains("isUsed"));
+        String imported = TestsHelper.perform(mockMvc, get("/rest/ships?name=Upper Ship")).andReturn().getResponse().getContentAsString();
+        assertTrue("isUsed=TRUE должно читаться как true", imported.contains("\"isUsed\":true"));
+    }
+
+    //test4
+    @Test
+    public void importProgressLinesAreBareObjectsTest() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1001; i++)
+            body.append("{\"name\":\"Bulk ").append(i).append("\",\"planet\":\"Mars\",\"shipType\":\"MILITARY\",")
+                    .append("\"prodDate\":32945443200000,\"speed\":0.5,\"crewSize\":100}\n");
+        String content = mockMvc.perform(post("/rest/ships/import").content(body.toString().getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = content.split("\n");
+        assertEquals("Ожидался отчёт после первой пачки и итоговый", 2, lines.length);
+        for (String line : lines)
+            assertTrue("Строка отчёта должна быть объектом без лишних пробелов: '" + line + "'",
+                    line.startsWith("{\"") && line.endsWith("}"));
+    }
+
+    private ImportReport importBody(String url, String body) throws Exception {
+        String content = mockMvc.perform(post(url).content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = content.split("\n");
+        return new ObjectMapper().readValue(lines[lines.length - 1], ImportReport.class);
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
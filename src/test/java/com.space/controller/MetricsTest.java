@@ -0,0 +1,110 @@
+package com.space.controller;
+
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.metrics.PrometheusText;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.regex.Pattern;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class MetricsTest {
+
+    private static final Pattern SAMPLE = Pattern.compile("[a-z_]+(\\{[a-z]+=\"[^\"]*\"(,[a-z]+=\"[^\"]*\")*})? \\S+");
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void endpointServiceAndRepositoryTimingsTest() throws Exception {
+        String before = scrape();
+        TestsHelper.perform(mockMvc, get("/rest/ships/page?pageSize=5")).andExpect(status().isOk());
+        String after = scrape();
+        assertEquals("Запрос страницы не учтён в времени обработчиков", 1.0, delta(before, after,
+                "cosmoport_http_request_seconds_count{handler=\"Controller.getPageOfShips\"}"));
+        assertEquals("Вызов сервиса не учтён", 1.0, delta(before, after,
+                "cosmoport_service_call_seconds_count{method=\"pagedShipsWithCount\"}"));
+        assertEquals("Вызов репозитория не учтён", 1.0, delta(before, after,
+                "cosmoport_repository_call_seconds_count{method=\"findSlice\"}"));
+        assertEquals("Сериализация страницы не учтена", 1.0, delta(before, after,
+                "cosmoport_serialization_seconds_count{type=\"page\"}"));
+        assertTrue("Нет перцентилей времени обработчика",
+                after.contains("cosmoport_http_request_seconds{handler=\"Controller.getPageOfShips\",quantile=\"0.99\"} "));
+    }
+
+    //test2
+    @Test
+    public void filterRowsAndSqlStatementsTest() throws Exception {
+        String before = scrape();
+        TestsHelper.perform(mockMvc, get("/rest/ships/page?pageSize=5")).andExpect(status().isOk());
+        String after = scrape();
+        assertEquals("Неверное число отданных строк", 5.0, delta(before, after,
+                "cosmoport_filter_rows_returned_total{source=\"database\"}"));
+        assertEquals("Неверное число просмотренных строк", 40.0, delta(before, after,
+                "cosmoport_filter_rows_scanned_total{source=\"database\"}"));
+        // Выборка страницы и подсчёт
+        assertEquals("Неверное число SQL-запросов", 2.0, delta(before, after, "cosmoport_sql_statements_total"));
+        assertTrue("SQL на запрос не учитывается", value(after, "cosmoport_sql_statements_per_request_count") >= 2);
+    }
+
+    //test3
+    @Test
+    public void prometheusTextFormatTest() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/metrics"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("Неверный Content-Type", PrometheusText.CONTENT_TYPE.replace(" ", ""),
+                response.getContentType().replace(" ", "").toLowerCase());
+        for (String line : response.getContentAsString().split("\n")) {
+            if (line.startsWith("# HELP ") || line.startsWith("# TYPE ")) continue;
+            assertTrue("Строка не в формате Prometheus: " + line, SAMPLE.matcher(line).matches());
+        }
+    }
+
+    private String scrape() throws Exception {
+        return mockMvc.perform(get("/rest/metrics")).andReturn().getResponse().getContentAsString();
+    }
+
+    private static double delta(String before, String after, String sample) {
+        return value(after, sample) - value(before, sample);
+    }
+
+    private static double value(String scrape, String sample) {
+        for (String line : scrape.split("\n"))
+            if (line.startsWith(sample + " ")) return Double.parseDouble(line.substring(sample.length() + 1));
+        return 0;
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
@@ -0,0 +1,99 @@
+package com.space.controller;
+
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.service.QueryPlanner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertNotNull;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@TestPropertySource(properties = {"planner.debugHeader=true", "index.enabled=true", "coalesce.windowMs=60000"})
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class QueryPlanTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        context.getBean(QueryPlanner.class).refreshStatistics();
+    }
+
+    //test1
+    @Test
+    public void typeAndUsedEstimateIsExactTest() throws Exception {
+        String plan = plan("/rest/ships/page?shipType=MILITARY&isUsed=false&pageSize=2");
+        assertEquals("Оценка по распределению типа и isUsed должна быть точной", value(plan, "actual"),
+                value(plan, "estimated"));
+    }
+
+    //test2
+    @Test
+    public void rangeEstimateIsCloseToActualTest() throws Exception {
+        String plan = plan("/rest/ships?minSpeed=0.5&pageSize=40");
+        long estimated = value(plan, "estimated");
+        long actual = value(plan, "actual");
+        assertTrue("Оценка " + estimated + " далека от фактических " + actual + " строк",
+                Math.abs(estimated - actual) <= 2);
+    }
+
+    //test3
+    @Test
+    public void broadQueryUsesIndexAndRepeatUsesResultTest() throws Exception {
+        String first = plan("/rest/ships/page?pageSize=20&order=SPEED");
+        assertTrue("Широкий запрос по небольшому флоту должен идти в индекс: " + first, first.startsWith("index;"));
+        String second = plan("/rest/ships/page?pageSize=20&order=SPEED");
+        assertTrue("Повторный запрос в окне должен брать готовый результат: " + second, second.startsWith("cached;"));
+        assertEquals("Число строк готового результата", value(first, "actual"), value(second, "actual"));
+    }
+
+    //test4
+    @Test
+    public void countReportsItsPlanTest() throws Exception {
+        String plan = plan("/rest/ships/count?shipType=MILITARY&isUsed=false");
+        assertTrue("В плане count нет фактического числа строк: " + plan, value(plan, "actual") >= 0);
+    }
+
+    private String plan(String url) throws Exception {
+        String plan = TestsHelper.perform(mockMvc, get(url)).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(Controller.QUERY_PLAN_HEADER);
+        assertNotNull("Нет заголовка плана запроса", plan);
+        return plan;
+    }
+
+    private static long value(String plan, String name) {
+        Matcher matcher = Pattern.compile(name + "=(\\d+)").matcher(plan);
+        assertTrue("В плане нет " + name + ": " + plan, matcher.find());
+        return Long.parseLong(matcher.group(1));
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
@@ -0,0 +1,97 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.model.RatingJobStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.DataSource;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class RatingRecomputeTest {
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void recomputeFixesStaleRatingsTest() throws Exception {
+        jdbcTemplate.update("UPDATE ship SET rating = 99 WHERE id IN (3, 17, 40)");
+
+        RatingJobStatus status = runJob("/rest/ratings/recompute?restart=true");
+
+        assertEquals("Пересчёт должен завершиться успешно", "DONE", status.getState());
+        assertEquals("Должны быть просмотрены все корабли", 40L, status.getProcessed());
+        // В test.sql у корабля 7 рейтинг 0.27 вместо 0.30 по формуле, он тоже исправляется
+        assertEquals("Должны измениться только устаревшие рейтинги", 4L, status.getUpdated());
+        assertEquals("Рейтинг не пересчитан", 0.3, jdbcTemplate.queryForObject("SELECT rating FROM ship WHERE id = 7", Double.class));
+        assertEquals("Рейтинг не пересчитан", 1.02, jdbcTemplate.queryForObject("SELECT rating FROM ship WHERE id = 3", Double.class));
+        assertEquals("После успешного завершения checkpoint удаляется", 0,
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM job_checkpoint", Integer.class).intValue());
+    }
+
+    //test2
+    @Test
+    public void recomputeResumesFromCheckpointTest() throws Exception {
+        jdbcTemplate.update("UPDATE ship SET rating = 99 WHERE id IN (3, 30)");
+        jdbcTemplate.update("INSERT INTO job_checkpoint(name, lastId) VALUES ('rating-recompute', 20)");
+
+        RatingJobStatus status = runJob("/rest/ratings/recompute");
+
+        assertEquals("Пересчёт должен завершиться успешно", "DONE", status.getState());
+        assertEquals("Корабли до checkpoint не должны просматриваться повторно", 20L, status.getProcessed());
+        assertEquals("Корабль до checkpoint не должен пересчитываться", 99.0,
+                jdbcTemplate.queryForObject("SELECT rating FROM ship WHERE id = 3", Double.class));
+        assertEquals("Корабль после checkpoint должен быть пересчитан", 1L, status.getUpdated());
+    }
+
+    private RatingJobStatus runJob(String url) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        String content = mockMvc.perform(post(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        RatingJobStatus status = mapper.readValue(content, RatingJobStatus.class);
+        for (int i = 0; i < 200 && "RUNNING".equals(status.getState()); i++) {
+            Thread.sleep(50);
+            content = mockMvc.perform(get("/rest/ratings/recompute")).andReturn().getResponse().getContentAsString();
+            status = mapper.readValue(content, RatingJobStatus.class);
+        }
+        return status;
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+}
@@ -0,0 +1,150 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.CompressionFilter;
+import com.space.config.MyWebAppInit;
+import com.space.config.WebConfig;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.CacheRegionStats;
+import com.space.service.ShipJsonCache;
+import com.space.service.ShipService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class, MyWebAppInit.class, WebConfig.class})
+@WebAppConfiguration
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ResponseEncodingTest {
+
+    private static final String ALL_SHIPS = "/rest/ships?pageSize=40";
+
+    private WebApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(new CompressionFilter(1024)).build();
+        context.getBean(ShipJsonCache.class).clear();
+    }
+
+    //test1
+    @Test
+    public void gzipAboveThresholdTest() throws Exception {
+        MockHttpServletResponse plain = TestsHelper.perform(mockMvc, get(ALL_SHIPS))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("Ответ без Accept-Encoding не должен сжиматься", null, plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+
+        MockHttpServletResponse gzip = TestsHelper.perform(mockMvc, get(ALL_SHIPS)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("Ответ должен быть сжат gzip", "gzip", gzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        byte[] compressed = gzip.getContentAsByteArray();
+        assertTrue("Сжатый ответ не меньше исходного", compressed.length < plain.getContentAsByteArray().length);
+        assertEquals("Распакованный ответ отличается от несжатого",
+                plain.getContentAsString(), new String(readAll(new GZIPInputStream(bytes(compressed))), "UTF-8"));
+    }
+
+    //test2
+    @Test
+    public void deflateAndSmallResponsesTest() throws Exception {
+        MockHttpServletResponse deflate = TestsHelper.perform(mockMvc, get(ALL_SHIPS)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("Ответ должен быть сжат deflate", "deflate", deflate.getHeader(HttpHeaders.CONTENT_ENCODING));
+        String inflated = new String(readAll(new InflaterInputStream(bytes(deflate.getContentAsByteArray()))), "UTF-8");
+        assertTrue("Распакованный deflate ответ не является списком", inflated.startsWith("[{") && inflated.endsWith("}]"));
+
+        MockHttpServletResponse small = TestsHelper.perform(mockMvc, get("/rest/ships/count")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("Маленький ответ не должен сжиматься", null, small.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("Неверное количество кораблей", "40", small.getContentAsString());
+    }
+
+    //test3
+    @Test
+    public void cachedBytesMatchJacksonTest() throws Exception {
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        ShipService shipService = context.getBean(ShipService.class);
+        String expected = objectMapper.writeValueAsString(shipService.pagedShips(null, null, null, null, null, null,
+                null, null, null, null, null, null, 0, 40, null));
+
+        String first = TestsHelper.perform(mockMvc, get(ALL_SHIPS)).andReturn().getResponse().getContentAsString();
+        String second = TestsHelper.perform(mockMvc, get(ALL_SHIPS)).andReturn().getResponse().getContentAsString();
+        assertEquals("Ответ из кэша байтов отличается от сериализации Jackson", expected, first);
+        assertEquals("Повторный ответ отличается от первого", first, second);
+        CacheRegionStats stats = context.getBean(ShipJsonCache.class).stats();
+        assertTrue("Повторный запрос не использовал кэш байтов", stats.getHits() >= 40);
+
+        mockMvc.perform(post("/rest/ships/1")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\":\"Renamed\"}"))
+                .andExpect(status().isOk());
+        String page = TestsHelper.perform(mockMvc, get("/rest/ships/page?pageSize=1"))
+                .andReturn().getResponse().getContentAsString();
+        assertTrue("Страница содержит устаревшие байты корабля", page.contains("\"Renamed\"") && page.endsWith(",\"count\":40}"));
+    }
+
+    //test4
+    @Test
+    public void exportIsCompressedTest() throws Exception {
+        MockHttpServletResponse plain = TestsHelper.perform(mockMvc, get("/rest/ships/export"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        MockHttpServletResponse gzip = TestsHelper.perform(mockMvc, get("/rest/ships/export")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("Выгрузка должна быть сжата gzip", "gzip", gzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("Распакованная выгрузка отличается от несжатой", plain.getContentAsString(),
+                new String(readAll(new GZIPInputStream(bytes(gzip.getContentAsByteArray()))), "UTF-8"));
+    }
+
+    private static InputStream bytes(byte[] content) {
+        return new ByteArrayInputStream(content);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int read; (read = in.read(buffer)) > 0; ) out.write(buffer, 0, read);
+        return out.toByteArray();
+    }
+
+    @Autowired
+    public void setContext(WebApplicationContext context) {
+        this.context = context;
+    }
+}
@@ -1,8 +1,13 @@
 package com.space.controller.utils;
 
+import com.space.config.CacheConfig;
+import com.space.config.MetricsConfig;
+import com.space.metrics.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
@@ -22,8 +27,12 @@ import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.
 @EnableTransactionManagement
 @ComponentScan("com.space.service")
 @EnableJpaRepositories(basePackages = "com.space.repository")
+@Import(MetricsConfig.class)
 public class TestDataSourceConfig {
 
+    @Autowired
+    private Metrics metrics;
+
     @Bean
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
@@ -32,6 +41,8 @@ public class TestDataSourceConfig {
 
         JpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
         em.setJpaVendorAdapter(vendorAdapter);
+        CacheConfig.disableSecondLevelCache(em);
+        MetricsConfig.countStatements(em, metrics);
 
         return em;
     }
@@ -2,9 +2,16 @@ package com.space.controller.utils;
 
 import com.space.controller.ShipOrder;
 import com.space.model.ShipType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 
 public class TestsHelper {
     public final static String NORMAL_JSON =
@@ -375,4 +382,13 @@ public class TestsHelper {
     public ShipInfoTest getShipInfosById(long id) {
         return allShips.stream().filter(s -> s.id == id).findFirst().orElse(null);
     }
-}
\ No newline at end of file
+
+    // Список, страница, count и export отвечают асинхронно: ответ появляется после повторной диспетчеризации
+    public static ResultActions perform(MockMvc mockMvc, RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        if (!result.getRequest().isAsyncStarted()) return actions;
+        result.getAsyncResult(TimeUnit.SECONDS.toMillis(10));
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
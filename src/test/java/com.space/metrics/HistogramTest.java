@@ -0,0 +1,45 @@
+package com.space.metrics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+public class HistogramTest {
+
+    //test1
+    @Test
+    public void bucketsCoverValuesWithoutGapsTest() {
+        for (long value = 0; value < 1 << 20; value++) {
+            int index = Histogram.index(value);
+            assertTrue("Значение " + value + " выше границы корзины", value <= Histogram.highestValue(index));
+            assertTrue("Значение " + value + " ниже границы корзины",
+                    index == 0 || value > Histogram.highestValue(index - 1));
+        }
+    }
+
+    //test2
+    @Test
+    public void percentilesWithinRelativeErrorTest() {
+        Random random = new Random(5);
+        long[] values = new long[100_000];
+        Histogram histogram = new Histogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 25);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals("Неверное количество значений", (long) values.length, snapshot.getCount());
+        assertEquals("Неверный максимум", values[values.length - 1], snapshot.getMax());
+        for (double q : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            long estimate = snapshot.percentile(q);
+            assertTrue("Перцентиль " + q + " меньше точного", estimate >= exact);
+            assertTrue("Перцентиль " + q + " больше точного на 1/32", estimate <= exact + exact / 32 + 1);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.space.repository;
+
+import com.space.controller.utils.TestDataSourceConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class})
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipIndexTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setup() {
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    //test1
+    @Test
+    public void orderBySpeedUsesSortedIndex() {
+        assertPlanUses("SELECT * FROM ship ORDER BY speed, id LIMIT 3", "IDX_SHIP_SPEED_ID", true);
+    }
+
+    //test2
+    @Test
+    public void orderByProdDateUsesSortedIndex() {
+        assertPlanUses("SELECT * FROM ship ORDER BY prodDate, id LIMIT 3 OFFSET 6", "IDX_SHIP_PRODDATE_ID", true);
+    }
+
+    //test3
+    @Test
+    public void ratingSeekUsesSortedIndex() {
+        assertPlanUses("SELECT * FROM ship WHERE rating > 2.5 OR (rating = 2.5 AND id > 7) ORDER BY rating, id LIMIT 3",
+                "IDX_SHIP_RATING_ID", true);
+    }
+
+    //test4
+    @Test
+    public void shipTypeIsUsedProdDateFilterUsesCompositeIndex() {
+        assertPlanUses("SELECT * FROM ship WHERE shipType = 'MILITARY' AND isUsed = TRUE " +
+                "AND prodDate > DATE '3000-01-01' AND prodDate < DATE '3011-01-01'",
+                "IDX_SHIP_SHIPTYPE_ISUSED_PRODDATE", false);
+    }
+
+    //test5
+    @Test
+    public void isUsedProdDateFilterUsesCompositeIndex() {
+        assertPlanUses("SELECT * FROM ship WHERE isUsed = FALSE AND prodDate > DATE '3000-01-01'",
+                "IDX_SHIP_ISUSED_PRODDATE", false);
+    }
+
+    //test6
+    @Test
+    public void crewSizeRangeUsesIndex() {
+        assertPlanUses("SELECT COUNT(*) FROM ship WHERE crewSize > 100 AND crewSize < 400", "IDX_SHIP_CREWSIZE", false);
+    }
+
+    private void assertPlanUses(String sql, String index, boolean sorted) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertTrue("Запрос не использует индекс " + index + ":\n" + plan, plan.contains("PUBLIC." + index));
+        if (sorted)
+            assertTrue("Запрос сортирует результат вместо чтения индекса " + index + " по порядку:\n" + plan,
+                    plan.contains("index sorted"));
+    }
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+}
@@ -0,0 +1,136 @@
+package com.space.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.model.FleetStats;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.repository.Repository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class})
+@TestPropertySource(properties = "aggregates.enabled=true")
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class FleetAggregatesTest {
+
+    private static final long YEAR_2990 = 32188147200000L;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Autowired
+    private FleetAggregates aggregates;
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private Repository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // test.sql перезаливает таблицу в обход сервиса
+    @Before
+    public void reconcile() {
+        assertTrue("Сверка с таблицей пропущена.", aggregates.reconcile());
+    }
+
+    //test1
+    @Test
+    public void writesThroughServiceKeepAggregatesTest() throws Exception {
+        assertMatchesTable();
+
+        Ship created = shipService.createShip(new Ship("Aggregate Probe", "Pluto", ShipType.MILITARY.name(),
+                new Date(YEAR_2990 + 1000L), true, 0.5, 100, null));
+        assertMatchesTable();
+
+        Ship changes = new Ship();
+        changes.setPlanet("Eris");
+        changes.setSpeed(0.93);
+        changes.setCrewSize(7);
+        shipService.updateShip(created.getId().toString(), changes);
+        assertMatchesTable();
+
+        Ship first = new Ship();
+        first.setId(2L);
+        first.setShipType(ShipType.MERCHANT.name());
+        Ship second = new Ship();
+        second.setId(2L);
+        second.setUsed(false);
+        Ship third = new Ship();
+        third.setId(3L);
+        third.setProdDate(new Date(YEAR_2990));
+        shipService.updateShips(Arrays.asList(first, second, third));
+        assertMatchesTable();
+
+        shipService.createShips(Arrays.asList(new Ship("Batch Probe", "Ceres", ShipType.TRANSPORT.name(),
+                new Date(YEAR_2990), false, 0.01, 9999, null)));
+        assertMatchesTable();
+
+        shipService.deleteShip(created.getId().toString());
+        shipService.deleteShips(Arrays.asList(1L, 4L, 4L, 100500L));
+        assertMatchesTable();
+    }
+
+    //test2
+    @Test
+    public void unfilteredQueriesAnswerFromAggregatesTest() throws Exception {
+        FleetStats stats = shipService.shipStats(null, null, null, null, null, null,
+                null, null, null, null, null, null);
+        assertEquals("Статистика всего флота не из агрегатов.", mapper.writeValueAsString(aggregates.stats()),
+                mapper.writeValueAsString(stats));
+
+        // Запись в обход сервиса агрегаты не видят до сверки
+        repository.deleteById(5L);
+        assertEquals("Количество всего флота не из агрегатов.", 40L, shipService.countShips(null, null, null,
+                null, null, null, null, null, null, null, null, null));
+        assertEquals("Количество с фильтром должно считаться по таблице.", 0L, shipService.countShips(null, null,
+                null, null, null, null, null, null, null, null, null, 0.0));
+
+        assertTrue("Сверка с таблицей пропущена.", aggregates.reconcile());
+        assertEquals("Сверка не исправила агрегаты.", 39L, shipService.countShips(null, null, null,
+                null, null, null, null, null, null, null, null, null));
+        assertMatchesTable();
+    }
+
+    //test3
+    @Test
+    public void finishedTransactionNeverBlocksReconcileTest() {
+        ShipChangeEvent event = ShipChangeEvent.saved(repository.findAllById(Arrays.asList(1L)));
+        new TransactionTemplate(transactionManager).execute(status -> {
+            aggregates.beforeCommit(event);
+            status.setRollbackOnly();
+            return null;
+        });
+        assertTrue("Незавершённая запись должна откладывать сверку.", !aggregates.reconcile());
+        // Коммит с неизвестным исходом не вызывает ни AFTER_COMMIT, ни AFTER_ROLLBACK, только AFTER_COMPLETION
+        aggregates.afterCompletion(event);
+        assertTrue("Завершённая транзакция не должна мешать сверке.", aggregates.reconcile());
+    }
+
+    private void assertMatchesTable() throws Exception {
+        List<Ship> ships = repository.findAll();
+        FleetStatsCollector expected = new FleetStatsCollector();
+        for (Ship ship : ships) expected.add(ship);
+        assertEquals("Агрегаты расходятся с таблицей.", mapper.writeValueAsString(expected.result()),
+                mapper.writeValueAsString(aggregates.stats()));
+    }
+}
@@ -0,0 +1,195 @@
+package com.space.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.ShipOrder;
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import com.space.repository.Repository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class})
+@TestPropertySource(properties = "index.enabled=true")
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class FleetIndexTest {
+
+    private static final String[] NAMES = {null, "a", "E", "ion", "x", "!", "%", "_", "zzz", "ORION", "ter", "ss "};
+    private static final String[] PLANETS = {null, "ar", "Earth", "u", "n", "%", "upi", "ercu"};
+    private static final long YEAR_2990 = 32188147200000L;
+    private static final long YEAR_3010 = 32819212800000L;
+
+    @Autowired
+    private FleetIndex fleetIndex;
+
+    @Autowired
+    private ShipService shipService;
+
+    @Autowired
+    private Repository repository;
+
+    @Before
+    public void reload() {
+        fleetIndex.reload();
+    }
+
+    //test1
+    @Test
+    public void randomFiltersMatchDatabaseTest() {
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            ShipFilter filter = randomFilter(random);
+            ShipOrder order = ShipOrder.values()[random.nextInt(ShipOrder.values().length)];
+            int offset = random.nextInt(45);
+            int limit = 1 + random.nextInt(15);
+            assertMatchesDatabase(filter, order, offset, limit);
+        }
+    }
+
+    //test2
+    @Test
+    public void writesThroughServiceAreIndexedTest() {
+        Ship ship = new Ship("Index Probe", "Pluto", ShipType.MILITARY.toString(), new Date(YEAR_2990 + 1000L),
+                true, 0.5, 100, null);
+        Ship created = shipService.createShip(ship);
+        ShipFilter byName = new ShipFilter("probe", null, null, null, null, null,
+                null, null, null, null, null, null);
+        assertEquals("Созданный корабль не найден индексом.", 1L, fleetIndex.count(byName));
+
+        Ship changes = new Ship();
+        changes.setSpeed(0.9);
+        shipService.updateShip(created.getId().toString(), changes);
+        ShipFilter fast = new ShipFilter("probe", null, null, null, null, null,
+                0.8, null, null, null, null, null);
+        assertEquals("Изменение скорости не попало в индекс.", 1L, fleetIndex.count(fast));
+        assertMatchesDatabase(fast, ShipOrder.SPEED, 0, 10);
+
+        shipService.deleteShip(created.getId().toString());
+        assertEquals("Удалённый корабль остался в индексе.", 0L, fleetIndex.count(byName));
+
+        shipService.deleteShips(Collections.singletonList(1L));
+        assertMatchesDatabase(randomFilter(new Random(1)), ShipOrder.RATING, 0, 50);
+        assertEquals("Количество в индексе расходится с базой.", repository.count(),
+                fleetIndex.count(new ShipFilter(null, null, null, null, null, null,
+                        null, null, null, null, null, null)));
+    }
+
+    //test3
+    @Test
+    public void substringsMatchDatabaseTest() {
+        Random random = new Random(3);
+        List<Ship> ships = repository.findAll();
+        for (int i = 0; i < 300; i++) {
+            Ship ship = ships.get(random.nextInt(ships.size()));
+            String value = random.nextBoolean() ? ship.getName() : ship.getPlanet();
+            int from = random.nextInt(value.length());
+            String needle = value.substring(from, Math.min(value.length(), from + 1 + random.nextInt(6)));
+            if (random.nextBoolean()) needle = needle.toUpperCase();
+            assertMatchesDatabase(new ShipFilter(needle, null, null, null, null, null,
+                    null, null, null, null, null, null), ShipOrder.ID, 0, 50);
+            assertMatchesDatabase(new ShipFilter(null, needle, null, null, null, null,
+                    null, null, null, null, null, null), ShipOrder.ID, 0, 50);
+        }
+
+        Ship changes = new Ship();
+        changes.setName("Renamed Probe");
+        changes.setPlanet("Sedna");
+        Ship renamed = shipService.updateShip("1", changes);
+        ShipFilter oldName = new ShipFilter(ships.get(0).getName(), null, null, null, null, null,
+                null, null, null, null, null, null);
+        assertMatchesDatabase(oldName, ShipOrder.ID, 0, 50);
+        ShipFilter newName = new ShipFilter("named pro", "edn", null, null, null, null,
+                null, null, null, null, null, null);
+        List<Ship> found = new ArrayList<>();
+        assertEquals("Переименованный корабль не найден по новым триграммам.", 1L,
+                fleetIndex.page(newName, ShipOrder.ID, 0, 10, found));
+        assertEquals("Найден не тот корабль.", renamed.getId(), found.get(0).getId());
+    }
+
+    //test4
+    @Test
+    public void statsSweepMatchesDatabaseRowsTest() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Random random = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            ShipFilter filter = randomFilter(random);
+            FleetStatsCollector fromIndex = new FleetStatsCollector();
+            fleetIndex.collect(filter, fromIndex);
+            FleetStatsCollector fromDatabase = new FleetStatsCollector();
+            for (Ship ship : repository.findAll(filter.toSpecification())) fromDatabase.add(ship);
+            assertEquals("Статистика индекса расходится с базой.",
+                    mapper.writeValueAsString(fromDatabase.result()), mapper.writeValueAsString(fromIndex.result()));
+        }
+    }
+
+    //test5
+    @Test
+    public void nullIsUsedMatchesNeitherValueTest() {
+        Ship ship = new Ship("Unknown Usage", "Pluto", ShipType.MILITARY.toString(), new Date(YEAR_2990 + 1000L),
+                null, 0.5, 100, 1.0);
+        repository.saveAndFlush(ship);
+        fleetIndex.reload();
+        for (Boolean isUsed : new Boolean[]{true, false}) {
+            ShipFilter filter = new ShipFilter(null, null, null, null, null, isUsed,
+                    null, null, null, null, null, null);
+            assertMatchesDatabase(filter, ShipOrder.ID, 0, 50);
+            assertEquals("Корабль с неизвестным isUsed не должен подходить под isUsed=" + isUsed + ".",
+                    repository.count(filter.toSpecification()), fleetIndex.count(filter));
+        }
+    }
+
+    private void assertMatchesDatabase(ShipFilter filter, ShipOrder order, int offset, int limit) {
+        Sort sort = Sort.by(order.getFieldName());
+        if (order != ShipOrder.ID) sort = sort.and(Sort.by(ShipOrder.ID.getFieldName()));
+        List<Ship> expected = repository.findSlice(filter.toSpecification(), sort, offset, limit);
+        List<Ship> actual = new ArrayList<>();
+        long count = fleetIndex.page(filter, order, offset, limit, actual);
+        assertEquals("Количество расходится с базой.", repository.countMatching(filter.toSpecification()), count);
+        assertEquals("Размер страницы расходится с базой.", expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Ship e = expected.get(i);
+            Ship a = actual.get(i);
+            assertEquals("Порядок расходится с базой.", e.getId(), a.getId());
+            assertTrue("Поля корабля расходятся с базой.", e.getName().equals(a.getName())
+                    && e.getPlanet().equals(a.getPlanet()) && e.getShipType().equals(a.getShipType())
+                    && e.getProdDate().getTime() == a.getProdDate().getTime() && e.getUsed().equals(a.getUsed())
+                    && e.getSpeed().equals(a.getSpeed()) && e.getCrewSize().equals(a.getCrewSize())
+                    && e.getRating().equals(a.getRating()));
+        }
+    }
+
+    private static ShipFilter randomFilter(Random random) {
+        String name = NAMES[random.nextInt(NAMES.length)];
+        String planet = PLANETS[random.nextInt(PLANETS.length)];
+        ShipType shipType = random.nextInt(3) == 0 ? ShipType.values()[random.nextInt(ShipType.values().length)] : null;
+        Long after = random.nextInt(3) == 0 ? YEAR_2990 : null;
+        Long before = random.nextInt(3) == 0 ? YEAR_3010 : null;
+        Boolean isUsed = random.nextInt(3) == 0 ? random.nextBoolean() : null;
+        Double minSpeed = random.nextInt(3) == 0 ? 0.1 + random.nextInt(5) / 10.0 : null;
+        Double maxSpeed = random.nextInt(3) == 0 ? 0.5 + random.nextInt(5) / 10.0 : null;
+        Integer minCrewSize = random.nextInt(3) == 0 ? random.nextInt(1000) : null;
+        Integer maxCrewSize = random.nextInt(3) == 0 ? 1000 + random.nextInt(3000) : null;
+        Double minRating = random.nextInt(3) == 0 ? random.nextInt(20) / 10.0 : null;
+        Double maxRating = random.nextInt(3) == 0 ? 1 + random.nextInt(40) / 10.0 : null;
+        return new ShipFilter(name, planet, shipType, after, before, isUsed,
+                minSpeed, maxSpeed, minCrewSize, maxCrewSize, minRating, maxRating);
+    }
+}
@@ -0,0 +1,45 @@
+package com.space.service;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+
+public class RatingsTest {
+
+    //test1
+    @Test
+    public void fastPathMatchesBigDecimalOnValidGridTest() {
+        for (int speed = 1; speed <= 99; speed++) {
+            for (int year = ProdDates.MIN_YEAR; year <= ProdDates.MAX_YEAR; year++) {
+                for (boolean isUsed : new boolean[]{false, true}) {
+                    double s = speed / 100.0;
+                    assertEquals("Рейтинг расходится для speed=" + s + ", year=" + year + ", isUsed=" + isUsed,
+                            Ratings.exact(s, isUsed, year), Ratings.of(s, isUsed, year));
+                }
+            }
+        }
+    }
+
+    //test2
+    @Test
+    public void fastPathMatchesBigDecimalOnRandomSpeedsTest() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000_000; i++) {
+            double speed = 0.01 + random.nextDouble() * 0.98;
+            int year = ProdDates.MIN_YEAR + random.nextInt(ProdDates.MAX_YEAR - ProdDates.MIN_YEAR + 1);
+            boolean isUsed = random.nextBoolean();
+            assertEquals("Рейтинг расходится для speed=" + speed + ", year=" + year + ", isUsed=" + isUsed,
+                    Ratings.exact(speed, isUsed, year), Ratings.of(speed, isUsed, year));
+        }
+    }
+
+    //test3
+    @Test
+    public void halfUpTiesTest() {
+        // 80 * 0.5 / 32 = 1.25 -> 1.25; 80 * 0.01 * 0.5 / 64 = 0.00625 -> 0.01
+        assertEquals("Неверное округление", 1.25, Ratings.of(0.5, false, ProdDates.CURRENT_YEAR - 31));
+        assertEquals("Неверное округление середины вверх", 0.01, Ratings.of(0.01, true, ProdDates.CURRENT_YEAR - 63));
+    }
+}
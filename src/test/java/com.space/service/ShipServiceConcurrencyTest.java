@@ -0,0 +1,138 @@
+package com.space.service;
+
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class})
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class ShipServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    private ShipService shipService;
+
+    //test1
+    @Test
+    public void yearOfMatchesCalendarUnderConcurrency() throws Exception {
+        long from = new Calendar.Builder().setDate(2700, Calendar.JANUARY, 1).build().getTimeInMillis();
+        long to = new Calendar.Builder().setDate(3100, Calendar.JANUARY, 1).build().getTimeInMillis();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            tasks.add(() -> {
+                Random random = new Random(seed);
+                Calendar calendar = Calendar.getInstance();
+                int mismatches = 0;
+                for (int i = 0; i < 200_000; i++) {
+                    long millis = from + (long) (random.nextDouble() * (to - from));
+                    calendar.setTimeInMillis(millis);
+                    if (ProdDates.yearOf(millis) != calendar.get(Calendar.YEAR)) mismatches++;
+                }
+                return mismatches;
+            });
+        }
+        for (int mismatches : runConcurrently(tasks))
+            assertEquals("ProdDates.yearOf расходится с Calendar.", 0, mismatches);
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2800, Calendar.JANUARY, 1);
+        assertTrue("Начало 2800 года должно быть допустимой датой.", ProdDates.isValid(calendar.getTime()));
+        calendar.add(Calendar.MILLISECOND, -1);
+        assertTrue("Конец 2799 года должен быть недопустимой датой.", !ProdDates.isValid(calendar.getTime()));
+        calendar.clear();
+        calendar.set(3020, Calendar.JANUARY, 1);
+        assertTrue("Начало 3020 года должно быть недопустимой датой.", !ProdDates.isValid(calendar.getTime()));
+        calendar.add(Calendar.MILLISECOND, -1);
+        assertTrue("Конец 3019 года должен быть допустимой датой.", ProdDates.isValid(calendar.getTime()));
+    }
+
+    //test2
+    @Test
+    public void createAndUpdateShipComputeRatingPerShipUnderConcurrency() throws Exception {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            tasks.add(() -> {
+                Random random = new Random(seed);
+                int mismatches = 0;
+                for (int i = 0; i < 25; i++) {
+                    int year = ProdDates.MIN_YEAR + random.nextInt(ProdDates.MAX_YEAR - ProdDates.MIN_YEAR + 1);
+                    double speed = (1 + random.nextInt(99)) / 100.0;
+                    boolean used = random.nextBoolean();
+                    Ship created = shipService.createShip(new Ship("Ship " + seed + "-" + i, "Earth",
+                            ShipType.MILITARY.name(), dateOf(year), used, speed, 100, null));
+                    if (!created.getRating().equals(expectedRating(speed, used, year))) mismatches++;
+
+                    int newYear = ProdDates.MIN_YEAR + random.nextInt(ProdDates.MAX_YEAR - ProdDates.MIN_YEAR + 1);
+                    Ship patch = new Ship();
+                    patch.setProdDate(dateOf(newYear));
+                    Ship updated = shipService.updateShip(created.getId().toString(), patch);
+                    if (!updated.getRating().equals(expectedRating(speed, used, newYear))) mismatches++;
+                }
+                return mismatches;
+            });
+        }
+        for (int mismatches : runConcurrently(tasks))
+            assertEquals("Рейтинг кораблей, созданных параллельно, рассчитан не правильно.", 0, mismatches);
+    }
+
+    private static Date dateOf(int year) {
+        return new Calendar.Builder().setDate(year, Calendar.JUNE, 15).build().getTime();
+    }
+
+    private static Double expectedRating(double speed, boolean used, int year) {
+        return BigDecimal.valueOf(80 * speed * (used ? 0.5 : 1) / (3019 - year + 1))
+                .setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    private static List<Integer> runConcurrently(List<Callable<Integer>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (Callable<Integer> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> future : futures) results.add(future.get());
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Autowired
+    public void setShipService(ShipService shipService) {
+        this.shipService = shipService;
+    }
+}
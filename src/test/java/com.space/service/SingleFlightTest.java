@@ -0,0 +1,125 @@
+package com.space.service;
+
+import com.space.controller.utils.TestDataSourceConfig;
+import com.space.model.Ship;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {TestDataSourceConfig.class})
+@TestPropertySource(properties = "coalesce.windowMs=60000")
+@Sql(scripts = "classpath:test.sql", config = @SqlConfig(encoding = "UTF-8"))
+public class SingleFlightTest {
+
+    private static final int THREADS = 8;
+
+    private SingleFlight singleFlight;
+    private ShipService shipService;
+
+    //test1
+    @Test
+    public void concurrentIdenticalQueriesShareOneEvaluationTest() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger evaluations = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            Future<Object> leader = pool.submit(() -> singleFlight.execute(() -> {
+                evaluations.incrementAndGet();
+                running.countDown();
+                await(release);
+                return new Object();
+            }, "test1"));
+            assertTrue("Первый запрос не запустился", running.await(10, TimeUnit.SECONDS));
+            List<Future<Object>> followers = new ArrayList<>();
+            for (int i = 1; i < THREADS; i++)
+                followers.add(pool.submit(() -> singleFlight.execute(() -> {
+                    evaluations.incrementAndGet();
+                    return new Object();
+                }, "test1")));
+            release.countDown();
+            Object result = leader.get(10, TimeUnit.SECONDS);
+            for (Future<Object> follower : followers)
+                assertTrue("Одинаковый запрос получил другой результат", follower.get(10, TimeUnit.SECONDS) == result);
+            assertEquals("Запрос должен выполниться один раз", 1, evaluations.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    //test2
+    @Test
+    public void failureIsSharedButNotKeptTest() {
+        AtomicInteger evaluations = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            try {
+                singleFlight.execute(() -> {
+                    evaluations.incrementAndGet();
+                    throw new IllegalStateException();
+                }, "test2");
+            } catch (IllegalStateException expected) {
+                continue;
+            }
+            throw new AssertionError("Исключение должно дойти до вызывающего");
+        }
+        assertEquals("Ошибка не должна сохраняться в окне результата", 2, evaluations.get());
+    }
+
+    //test3
+    @Test
+    public void resultWindowEndsOnWriteTest() {
+        List<Ship> first = shipService.getAllShips(null, null, ShipType.MILITARY, null, null, null,
+                null, null, null, null, null, null);
+        List<Ship> second = shipService.getAllShips(null, null, ShipType.MILITARY, null, null, null,
+                null, null, null, null, null, null);
+        assertTrue("Повторный запрос в окне должен получить готовый результат", first == second);
+        assertEquals("Неверное количество кораблей", 40L, shipService.countShips(null, null, null, null, null,
+                null, null, null, null, null, null, null));
+
+        shipService.createShip(new Ship("Coalesce", "Earth", ShipType.MILITARY.name(),
+                new Calendar.Builder().setDate(3000, Calendar.JANUARY, 1).build().getTime(), false, 0.5, 10, null));
+        assertEquals("После записи количество должно считаться заново", 41L, shipService.countShips(null, null,
+                null, null, null, null, null, null, null, null, null, null));
+        List<Ship> third = shipService.getAllShips(null, null, ShipType.MILITARY, null, null, null,
+                null, null, null, null, null, null);
+        assertEquals("После записи список должен считаться заново", first.size() + 1, third.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Autowired
+    public void setSingleFlight(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
+    @Autowired
+    public void setShipService(ShipService shipService) {
+        this.shipService = shipService;
+    }
+}